@@ -0,0 +1,211 @@
+package com.josecarloscruz89.msusers.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of users by id. Entries expire after the configured time to live and are
+ * evicted by size, and ids that do not exist are only cached when the negative cache is enabled.
+ * Concurrent misses for the same id share a single load.
+ */
+@Component
+public class UserCache implements MeterBinder {
+
+    private final Cache<UUID, Optional<UserResponse>> cache;
+
+    private final boolean negativeCacheEnabled;
+
+    private final ConcurrentHashMap<UUID, CompletableFuture<Optional<UserResponse>>> inFlightLoads =
+            new ConcurrentHashMap<>();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder coalescedLoads = new LongAdder();
+
+    public UserCache(UserCacheProperties properties) {
+        this.negativeCacheEnabled = properties.negativeCacheEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(new UserExpiry(properties.timeToLive(), properties.negativeTimeToLive()))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached user or loads it. The loader runs outside of the cache's internal locks, so a virtual
+     * thread waiting on the database is never pinned to its carrier. Callers missing the same id while a load
+     * is in flight wait for that load instead of starting their own, and ids loading at the same time never
+     * block each other.
+     */
+    public Optional<UserResponse> get(UUID userId, Function<UUID, Optional<UserResponse>> loader) {
+        Optional<UserResponse> cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<Optional<UserResponse>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<UserResponse>> inFlightLoad = inFlightLoads.putIfAbsent(userId, load);
+        if (inFlightLoad != null) {
+            coalescedLoads.increment();
+            return join(inFlightLoad);
+        }
+
+        loads.increment();
+        try {
+            Optional<UserResponse> loaded = loader.apply(userId);
+            // An invalidation during the load removed it from the in-flight loads, so its result may be stale.
+            if (inFlightLoads.remove(userId, load) && (loaded.isPresent() || negativeCacheEnabled)) {
+                cache.put(userId, loaded);
+            }
+            load.complete(loaded);
+
+            return loaded;
+        } catch (RuntimeException | Error e) {
+            inFlightLoads.remove(userId, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns an entry for every requested id, cached or not. The ids missing from the cache are handed to the
+     * loader together, so a bulk read costs at most one query; ids absent from the loaded map do not exist.
+     * The loaded users are cached under the same guard as {@link #get}: lookups of the same ids wait for this load,
+     * and ids invalidated while it runs, or already being loaded by another caller, are returned but not cached.
+     */
+    public Map<UUID, Optional<UserResponse>> getAll(Set<UUID> userIds,
+                                                    Function<Set<UUID>, Map<UUID, UserResponse>> loader) {
+        Map<UUID, Optional<UserResponse>> users = new HashMap<>(cache.getAllPresent(userIds));
+
+        Set<UUID> missingIds = new HashSet<>(userIds);
+        missingIds.removeAll(users.keySet());
+        if (missingIds.isEmpty()) {
+            return users;
+        }
+
+        Map<UUID, CompletableFuture<Optional<UserResponse>>> ownLoads = new HashMap<>();
+        missingIds.forEach(userId -> {
+            CompletableFuture<Optional<UserResponse>> load = new CompletableFuture<>();
+            if (inFlightLoads.putIfAbsent(userId, load) == null) {
+                ownLoads.put(userId, load);
+            }
+        });
+
+        Map<UUID, UserResponse> loaded;
+        try {
+            loaded = loader.apply(missingIds);
+        } catch (RuntimeException | Error e) {
+            ownLoads.forEach((userId, load) -> {
+                inFlightLoads.remove(userId, load);
+                load.completeExceptionally(e);
+            });
+            throw e;
+        }
+
+        missingIds.forEach(userId -> {
+            Optional<UserResponse> user = Optional.ofNullable(loaded.get(userId));
+            CompletableFuture<Optional<UserResponse>> load = ownLoads.get(userId);
+            if (load != null) {
+                if (inFlightLoads.remove(userId, load) && (user.isPresent() || negativeCacheEnabled)) {
+                    cache.put(userId, user);
+                }
+                load.complete(user);
+            }
+            users.put(userId, user);
+        });
+
+        return users;
+    }
+
+    /**
+     * Drops the cached user and any load in flight. Inside a transaction the user is dropped again once the
+     * transaction completes: until the change commits, a concurrent lookup still reads and caches the old row.
+     */
+    public void invalidate(UUID userId) {
+        evict(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    private void evict(UUID userId) {
+        inFlightLoads.remove(userId);
+        cache.invalidate(userId);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+        FunctionCounter.builder("users.cache.loads", loads, LongAdder::sum)
+                .description("Lookups of users missing from the cache that loaded them")
+                .register(meterRegistry);
+        FunctionCounter.builder("users.cache.loads.coalesced", coalescedLoads, LongAdder::sum)
+                .description("Lookups of users missing from the cache that waited for a load already in flight")
+                .register(meterRegistry);
+    }
+
+    private static Optional<UserResponse> join(CompletableFuture<Optional<UserResponse>> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private record UserExpiry(Duration timeToLive, Duration negativeTimeToLive)
+            implements Expiry<UUID, Optional<UserResponse>> {
+
+        @Override
+        public long expireAfterCreate(UUID userId, Optional<UserResponse> user, long currentTime) {
+            return (user.isPresent() ? timeToLive : negativeTimeToLive).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID userId, Optional<UserResponse> user, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(userId, user, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(UUID userId, Optional<UserResponse> user, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
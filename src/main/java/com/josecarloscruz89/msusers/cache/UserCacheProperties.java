@@ -0,0 +1,21 @@
+package com.josecarloscruz89.msusers.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-process user cache.
+ *
+ * @param maximumSize          maximum number of entries kept, found and not found ones together
+ * @param timeToLive           how long a found user is served from the cache after being loaded
+ * @param negativeCacheEnabled whether ids that do not exist are cached as well
+ * @param negativeTimeToLive   how long a not found id is served from the cache after being loaded
+ */
+@ConfigurationProperties(prefix = "users.cache")
+public record UserCacheProperties(@DefaultValue("10000") long maximumSize,
+                                  @DefaultValue("5m") Duration timeToLive,
+                                  @DefaultValue("false") boolean negativeCacheEnabled,
+                                  @DefaultValue("30s") Duration negativeTimeToLive) {
+}
@@ -0,0 +1,43 @@
+package com.josecarloscruz89.msusers.config;
+
+import com.josecarloscruz89.msusers.datasource.ConnectionPoolConfigurer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class ConnectionPoolConfig {
+
+    /**
+     * Runs after initialization so the typed pool settings win over the spring.datasource.hikari binding.
+     * The pool only starts on its first connection, so the settings are still applied to a fresh pool.
+     */
+    @Bean
+    public static BeanPostProcessor connectionPoolPostProcessor(ObjectProvider<ConnectionPoolConfigurer> configurer) {
+        return new ConnectionPoolPostProcessor(configurer);
+    }
+
+    /**
+     * Ordered, so it runs before the unordered post processors that wrap the data source, such as the query
+     * counting one.
+     */
+    private record ConnectionPoolPostProcessor(ObjectProvider<ConnectionPoolConfigurer> configurer)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource dataSource) {
+                configurer.getObject().configure(dataSource);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
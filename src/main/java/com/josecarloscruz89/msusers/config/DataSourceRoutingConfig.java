@@ -0,0 +1,90 @@
+package com.josecarloscruz89.msusers.config;
+
+import com.josecarloscruz89.msusers.datasource.ConnectionPoolConfigurer;
+import com.josecarloscruz89.msusers.datasource.ReadWriteRoutingDataSource;
+import com.josecarloscruz89.msusers.datasource.RoutingDataSourceProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in routing, enabled with users.datasource.routing.enabled, of read-only transactions to read replicas.
+ * Writes, Flyway and anything outside a read-only transaction keep using the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                 RoutingDataSourceProperties properties,
+                                                                 ConnectionPoolConfigurer connectionPoolConfigurer,
+                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<RoutingDataSourceProperties.Replica> replicaProperties = properties.replicas();
+        for (int index = 0; index < replicaProperties.size(); index++) {
+            RoutingDataSourceProperties.Replica replica = replicaProperties.get(index);
+
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + index);
+            dataSource.setJdbcUrl(replica.url());
+            dataSource.setUsername(replica.username());
+            dataSource.setPassword(replica.password());
+            dataSource.setReadOnly(true);
+            connectionPoolConfigurer.configure(dataSource);
+            meterRegistry.ifAvailable(dataSource::setMetricRegistry);
+            replicas.put(dataSource.getPoolName(), dataSource);
+        }
+
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, replicas,
+                properties.maxLag(), properties.lagQuery());
+        routingDataSource.checkReplicaLag();
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService replicaLagChecker(ReadWriteRoutingDataSource readWriteRoutingDataSource,
+                                                      RoutingDataSourceProperties properties) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long interval = properties.lagCheckInterval().toMillis();
+        executor.scheduleWithFixedDelay(readWriteRoutingDataSource::checkReplicaLag, interval, interval,
+                TimeUnit.MILLISECONDS);
+        return executor;
+    }
+}
@@ -0,0 +1,36 @@
+package com.josecarloscruz89.msusers.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in mode, enabled with users.virtual-threads.enabled, that serves every request on its own virtual thread
+ * instead of Tomcat's bounded platform thread pool. A request blocked on JDBC then parks its virtual thread and
+ * releases the carrier, so concurrency is bounded by the connection pool rather than by the number of threads.
+ * Run with -Djdk.tracePinnedThreads=short to report code that blocks while pinned to its carrier.
+ * <p>
+ * It stays off by default: on the single-core host it was measured on, both modes were CPU bound at the same
+ * throughput, so there is no evidence yet that it helps. Enable it only once {@code VirtualThreadsBenchmark}
+ * shows a gain on a multi-core host whose requests block on the database or another downstream.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
@@ -1,13 +1,23 @@
 package com.josecarloscruz89.msusers.controller;
 
+import com.josecarloscruz89.msusers.exception.BadRequestException;
+import com.josecarloscruz89.msusers.exception.InvalidItemsException;
 import com.josecarloscruz89.msusers.exception.NotFoundException;
+import com.josecarloscruz89.msusers.exception.PreconditionFailedException;
+import com.josecarloscruz89.msusers.exception.ServiceUnavailableException;
 import com.josecarloscruz89.msusers.model.dto.ErrorResponse;
+import com.josecarloscruz89.msusers.model.dto.ItemErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -16,15 +26,54 @@ import java.util.List;
 @RestControllerAdvice
 public class ControllerAdvice {
 
+    private final Counter notFoundCounter;
+
+    public ControllerAdvice(MeterRegistry meterRegistry) {
+        this.notFoundCounter = Counter.builder("users.not_found")
+                .description("Requests answered with 404 because the user does not exist")
+                .register(meterRegistry);
+    }
+
     @ExceptionHandler(NotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
-    public void handleNotFoundException(NotFoundException notFoundException) {
-        log.error("Not found exception happened.", notFoundException);
+    public void handleNotFoundException() {
+        log.debug("Not found exception happened.");
+        notFoundCounter.increment();
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public List<ErrorResponse> handlePreconditionFailedException() {
+        return List.of(new ErrorResponse("The user was changed since the given version"));
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public List<ErrorResponse> handleServiceUnavailableException(ServiceUnavailableException e) {
+        return List.of(new ErrorResponse(e.getMessage()));
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public List<ErrorResponse> handleBadRequestException(BadRequestException badRequestException) {
+        return List.of(new ErrorResponse(badRequestException.getMessage()));
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public List<ErrorResponse> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException e) {
+        return List.of(new ErrorResponse("The " + e.getName() + " is invalid"));
+    }
+
+    @ExceptionHandler(InvalidItemsException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public List<ItemErrorResponse> handleInvalidItemsException(InvalidItemsException invalidItemsException) {
+        return invalidItemsException.getErrors();
     }
 
-    @ExceptionHandler(MethodArgumentNotValidException.class)
+    @ExceptionHandler({MethodArgumentNotValidException.class, WebExchangeBindException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public List<ErrorResponse> handleMethodArgumentNotValidException(MethodArgumentNotValidException e) {
+    public List<ErrorResponse> handleMethodArgumentNotValidException(BindingResult e) {
         List<ErrorResponse> errors = new ArrayList<>();
         e.getAllErrors().forEach(error -> {
             errors.add(new ErrorResponse(error.getDefaultMessage()));
@@ -0,0 +1,76 @@
+package com.josecarloscruz89.msusers.controller;
+
+import com.josecarloscruz89.msusers.model.dto.UserRequest;
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import com.josecarloscruz89.msusers.service.ReactiveUserService;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@Profile("reactive")
+@RestController
+@RequestMapping("/users")
+public class ReactiveUserController {
+
+    private final ReactiveUserService reactiveUserService;
+
+    public ReactiveUserController(ReactiveUserService reactiveUserService) {
+        this.reactiveUserService = reactiveUserService;
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<UserResponse> getAllUsers() {
+        return reactiveUserService.getAllUsers();
+    }
+
+    @GetMapping("/{userId}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<UserResponse> getUserById(@PathVariable(name = "userId") UUID userId) {
+        return reactiveUserService.getUserById(userId);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Void>> createUser(@RequestBody UserRequest userRequest) {
+        return reactiveUserService.createUser(userRequest)
+                .map(createdUserId -> ResponseEntity.status(HttpStatus.CREATED)
+                        .header("Location", createdUserId.toString())
+                        .build());
+    }
+
+    @PutMapping("/{userId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> updateUser(@RequestBody @Valid UserRequest userRequest,
+                                 @PathVariable(name = "userId") UUID userId) {
+        return reactiveUserService.updateUser(userRequest, userId);
+    }
+
+    @PatchMapping("/{userId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> partialUpdateUser(@RequestBody UserRequest userRequest,
+                                        @PathVariable(name = "userId") UUID userId) {
+        return reactiveUserService.partialUpdateUser(userRequest, userId);
+    }
+
+    @DeleteMapping("/{userId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteUserById(@PathVariable(name = "userId") UUID userId) {
+        return reactiveUserService.deleteUserById(userId);
+    }
+}
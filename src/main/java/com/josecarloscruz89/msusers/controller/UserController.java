@@ -1,11 +1,35 @@
 package com.josecarloscruz89.msusers.controller;
 
+import com.josecarloscruz89.msusers.exception.BadRequestException;
+import com.josecarloscruz89.msusers.exception.InvalidItemsException;
+import com.josecarloscruz89.msusers.exception.PreconditionFailedException;
+import com.josecarloscruz89.msusers.exporter.UserExportFormat;
+import com.josecarloscruz89.msusers.importer.UserImportFormat;
+import com.josecarloscruz89.msusers.model.dto.ItemErrorResponse;
+import com.josecarloscruz89.msusers.model.dto.UserBatchResponse;
+import com.josecarloscruz89.msusers.model.dto.UserChangesResponse;
+import com.josecarloscruz89.msusers.model.dto.UserImportResponse;
+import com.josecarloscruz89.msusers.model.dto.UserLookupRequest;
+import com.josecarloscruz89.msusers.model.dto.UserLookupResponse;
+import com.josecarloscruz89.msusers.model.dto.UserPageResponse;
 import com.josecarloscruz89.msusers.model.dto.UserRequest;
 import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import com.josecarloscruz89.msusers.model.dto.UserSearchRequest;
+import com.josecarloscruz89.msusers.model.dto.UserSyncResponse;
 import com.josecarloscruz89.msusers.service.UserService;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationStrategy;
+import org.springframework.web.accept.HeaderContentNegotiationStrategy;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -13,56 +37,289 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping("/users")
 public class UserController {
 
+    public static final int MAX_BATCH_SIZE = 5000;
+
     private final UserService userService;
 
-    public UserController(UserService userService) {
+    private final UserListWriter userListWriter;
+
+    private final ContentNegotiationStrategy contentNegotiationStrategy = new HeaderContentNegotiationStrategy();
+
+    private final Validator validator;
+
+    public UserController(UserService userService, UserListWriter userListWriter, Validator validator) {
         this.userService = userService;
+        this.userListWriter = userListWriter;
+        this.validator = validator;
+    }
+
+    /**
+     * Answers 304 before touching the users when the client already holds the current list. The status is not
+     * declared with {@code @ResponseStatus}, which would overwrite the 304. Each encoding gets its own ETag,
+     * since the same version is a different body in each of them.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, UserListWriter.APPLICATION_SMILE_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, UserListWriter.APPLICATION_COLUMNAR_JSON_VALUE})
+    public void getAllUsers(NativeWebRequest webRequest, HttpServletResponse httpServletResponse)
+            throws IOException, HttpMediaTypeNotAcceptableException {
+        MediaType mediaType = userListWriter.negotiate(contentNegotiationStrategy.resolveMediaTypes(webRequest));
+
+        httpServletResponse.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        String etag = "W/\"" + userService.getUsersVersion() + "-" + mediaType.getSubtype() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return;
+        }
+
+        httpServletResponse.setContentType(mediaType.toString());
+        userListWriter.write(mediaType, httpServletResponse.getOutputStream(), userService::streamAllUsers);
+    }
+
+    /**
+     * Streams the whole table, or the ids between after and before, ordered by id. A client whose export was
+     * interrupted resumes it with after set to the last id it received, and a large table can be exported in
+     * ranges in parallel. The response is gzip compressed when the client accepts it.
+     */
+    @GetMapping(value = "/export", produces = {UserExportFormat.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void exportUsers(@RequestParam(name = "after", required = false) UUID after,
+                            @RequestParam(name = "before", required = false) UUID before,
+                            NativeWebRequest webRequest, HttpServletResponse httpServletResponse)
+            throws IOException, HttpMediaTypeNotAcceptableException {
+        UserExportFormat format = UserExportFormat.negotiate(contentNegotiationStrategy.resolveMediaTypes(webRequest));
+
+        httpServletResponse.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        httpServletResponse.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("users." + format.getExtension())
+                .build()
+                .toString());
+        httpServletResponse.setContentType(format.getMediaType().toString());
+        httpServletResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        userService.exportUsers(format, after, before, httpServletResponse.getOutputStream());
     }
 
-    @GetMapping
+    /**
+     * Long-polls the user changes after the cursor: answers as soon as there are any, or with none and the same
+     * position once users.changes.max-wait is over. The next request passes nextCursor as since. The request
+     * thread is released while waiting, so idle consumers do not hold the servlet container's threads.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.OK)
-    public List<UserResponse> getAllUsers() {
-        return userService.getAllUsers();
+    public CompletableFuture<UserChangesResponse> getChanges(
+            @RequestParam(name = "since", required = false) String since,
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        return userService.awaitChanges(since, limit);
     }
 
-    @GetMapping("/{userId}")
+    /**
+     * Streams the user changes after the cursor as server-sent events, one event per batch, with the cursor
+     * as the event id so a reconnecting client resumes from Last-Event-ID. A comment is sent whenever a poll
+     * finds nothing, which keeps proxies from closing the idle connection and detects clients that left. The
+     * stream lasts until spring.mvc.async.request-timeout, and the client then reconnects. An invalid cursor or
+     * limit is answered with a bare 400, since the JSON error body cannot be sent to a client accepting only
+     * event streams.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(name = "since", required = false) String since,
+                                    @RequestParam(name = "limit", required = false) Integer limit,
+                                    @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        UserChangesResponse firstChanges;
+        try {
+            firstChanges = userService.getChanges(lastEventId != null ? lastEventId : since, limit);
+        } catch (BadRequestException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        SseEmitter sseEmitter = new SseEmitter();
+        AtomicBoolean open = new AtomicBoolean(true);
+        sseEmitter.onCompletion(() -> open.set(false));
+        sseEmitter.onTimeout(() -> open.set(false));
+        sseEmitter.onError(throwable -> open.set(false));
+
+        Thread.ofVirtual().name("users-changes-stream").start(() -> {
+            try {
+                UserChangesResponse changes = firstChanges;
+                while (open.get()) {
+                    if (changes.getChanges().isEmpty()) {
+                        sseEmitter.send(SseEmitter.event().comment("no changes"));
+                    } else {
+                        sseEmitter.send(SseEmitter.event()
+                                .id(changes.getNextCursor())
+                                .name("changes")
+                                .data(changes, MediaType.APPLICATION_JSON));
+                    }
+                    changes = userService.awaitChanges(changes.getNextCursor(), limit).join();
+                }
+            } catch (IOException | RuntimeException e) {
+                sseEmitter.completeWithError(e);
+            }
+        });
+
+        return sseEmitter;
+    }
+
+    /**
+     * Returns what changed since a point in time, for sync jobs: the users created or updated since then and the
+     * ids of the users deleted since then. The next page, and the next run of the job, pass nextCursor.
+     */
+    @GetMapping(params = "updatedSince")
+    @ResponseStatus(HttpStatus.OK)
+    public UserSyncResponse syncUsers(@RequestParam(name = "updatedSince")
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+                                      @RequestParam(name = "cursor", required = false) String cursor,
+                                      @RequestParam(name = "limit", required = false) Integer limit) {
+        return userService.syncUsers(updatedSince, cursor, limit);
+    }
+
+    @GetMapping(params = {"limit", "!updatedSince"})
+    @ResponseStatus(HttpStatus.OK)
+    public UserPageResponse getUsersPage(@RequestParam(name = "limit") int limit,
+                                         @RequestParam(name = "cursor", required = false) String cursor) {
+        return userService.getUsersPage(cursor, limit);
+    }
+
+    @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
-    public UserResponse getUserById(@PathVariable(name = "userId") String userId) {
-        return userService.getUserById(userId);
+    public UserPageResponse searchUsers(UserSearchRequest userSearchRequest) {
+        return userService.searchUsers(userSearchRequest);
+    }
+
+    /**
+     * The ETag is the user version, so a client can send it back as If-Match on updates. Spring answers
+     * If-None-Match and If-Modified-Since with 304 from these headers without serializing the body.
+     */
+    @GetMapping("/{userId}")
+    public ResponseEntity<UserResponse> getUserById(@PathVariable(name = "userId") UUID userId) {
+        UserResponse userResponse = userService.getUserById(userId);
+
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok();
+        if (userResponse.getVersion() != null) {
+            responseBuilder.eTag("\"" + userResponse.getVersion() + "\"");
+        }
+        if (userResponse.getUpdatedAt() != null) {
+            responseBuilder.lastModified(userResponse.getUpdatedAt().atZone(ZoneId.systemDefault()));
+        }
+
+        return responseBuilder.body(userResponse);
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public void createUser(@RequestBody UserRequest userRequest, HttpServletResponse httpServletResponse) {
-        String createdUserId = userService.createUser(userRequest);
-        httpServletResponse.setHeader("Location", createdUserId);
+    public void createUser(@RequestBody @Valid UserRequest userRequest, HttpServletResponse httpServletResponse) {
+        UUID createdUserId = userService.createUser(userRequest);
+        httpServletResponse.setHeader("Location", createdUserId.toString());
+    }
+
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public UserBatchResponse createUsers(@RequestBody List<UserRequest> userRequests) {
+        if (userRequests.isEmpty() || userRequests.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("The batch must contain between 1 and " + MAX_BATCH_SIZE + " users");
+        }
+
+        List<ItemErrorResponse> errors = new ArrayList<>();
+        for (int index = 0; index < userRequests.size(); index++) {
+            int itemIndex = index;
+            validator.validate(userRequests.get(index))
+                    .forEach(violation -> errors.add(new ItemErrorResponse(itemIndex, violation.getMessage())));
+        }
+
+        if (!errors.isEmpty()) {
+            throw new InvalidItemsException(errors);
+        }
+
+        return UserBatchResponse.builder()
+                .uuids(userService.createUsers(userRequests))
+                .build();
+    }
+
+    /**
+     * Reads the request body as it arrives instead of binding it, so files of millions of users are never held
+     * in memory.
+     */
+    @PostMapping(value = "/import", consumes = {UserImportFormat.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public UserImportResponse importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                          InputStream inputStream) throws IOException {
+        Charset charset = contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset();
+        return userService.importUsers(inputStream, UserImportFormat.fromMediaType(contentType), charset);
+    }
+
+    @PostMapping("/lookup")
+    @ResponseStatus(HttpStatus.OK)
+    public UserLookupResponse lookupUsers(@RequestBody @Valid UserLookupRequest userLookupRequest) {
+        return userService.lookupUsers(userLookupRequest.getIds());
     }
 
     @PutMapping("/{userId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void updateUser(@RequestBody @Valid UserRequest userRequest, @PathVariable(name = "userId") String userId){
-        userService.updateUser(userRequest, userId);
+    public void updateUser(@RequestBody @Valid UserRequest userRequest,
+                           @PathVariable(name = "userId") UUID userId,
+                           @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        userService.updateUser(userRequest, userId, expectedVersion(ifMatch));
     }
 
     @PatchMapping("/{userId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void partialUpdateUser(@RequestBody UserRequest userRequest, @PathVariable(name = "userId") String userId) {
-        userService.partialUpdateUser(userRequest, userId);
+    public void partialUpdateUser(@RequestBody UserRequest userRequest,
+                                  @PathVariable(name = "userId") UUID userId,
+                                  @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        userService.partialUpdateUser(userRequest, userId, expectedVersion(ifMatch));
     }
 
     @DeleteMapping("/{userId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteUserById(@PathVariable(name = "userId") String userId) {
+    public void deleteUserById(@PathVariable(name = "userId") UUID userId) {
         userService.deleteUserById(userId);
     }
-}
\ No newline at end of file
+
+    @DeleteMapping(params = "ids")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteUsersByIds(@RequestParam(name = "ids") List<UUID> userIds) {
+        userService.deleteUsersByIds(userIds);
+    }
+
+    /**
+     * Reads the version out of an If-Match header. No header or * updates whatever the version is. A weak, listed
+     * or unknown ETag can never match the strong version ETag, so it fails the precondition.
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String etag = ifMatch.trim();
+        if (etag.length() < 3 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+            throw new PreconditionFailedException();
+        }
+
+        try {
+            return Long.parseLong(etag.substring(1, etag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException();
+        }
+    }
+}
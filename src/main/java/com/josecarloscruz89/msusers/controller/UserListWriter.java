@@ -0,0 +1,133 @@
+package com.josecarloscruz89.msusers.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Writes the full user list while it is read from the database, in one of the negotiated encodings:
+ * JSON, Smile or CBOR objects, or columnar JSON where each block of up to {@value #COLUMNAR_BLOCK_SIZE} users
+ * is sent as one array per field, so field names are written once per block instead of once per user.
+ */
+@Component
+public class UserListWriter {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final String APPLICATION_COLUMNAR_JSON_VALUE = "application/vnd.users.columnar+json";
+
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    public static final MediaType APPLICATION_COLUMNAR_JSON = MediaType.parseMediaType(APPLICATION_COLUMNAR_JSON_VALUE);
+
+    public static final int COLUMNAR_BLOCK_SIZE = 1000;
+
+    /**
+     * In order of preference, so a wildcard Accept header gets plain JSON.
+     */
+    public static final List<MediaType> SUPPORTED_MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON,
+            APPLICATION_SMILE, MediaType.APPLICATION_CBOR, APPLICATION_COLUMNAR_JSON);
+
+    private final Map<MediaType, ObjectMapper> objectMappers;
+
+    public UserListWriter(ObjectMapper objectMapper) {
+        this.objectMappers = Map.of(MediaType.APPLICATION_JSON, objectMapper,
+                APPLICATION_SMILE, objectMapper.copyWith(new SmileFactory()),
+                MediaType.APPLICATION_CBOR, objectMapper.copyWith(new CBORFactory()),
+                APPLICATION_COLUMNAR_JSON, objectMapper);
+    }
+
+    /**
+     * Picks the first supported encoding the client accepts, the accepted types being sorted by preference.
+     */
+    public MediaType negotiate(List<MediaType> acceptedMediaTypes) {
+        for (MediaType acceptedMediaType : acceptedMediaTypes) {
+            for (MediaType supportedMediaType : SUPPORTED_MEDIA_TYPES) {
+                if (acceptedMediaType.isCompatibleWith(supportedMediaType)) {
+                    return supportedMediaType;
+                }
+            }
+        }
+
+        return MediaType.APPLICATION_JSON;
+    }
+
+    public void write(MediaType mediaType, OutputStream outputStream, Consumer<Consumer<UserResponse>> users)
+            throws IOException {
+        try (JsonGenerator jsonGenerator = objectMappers.get(mediaType).createGenerator(outputStream)) {
+            jsonGenerator.writeStartArray();
+            if (APPLICATION_COLUMNAR_JSON.equals(mediaType)) {
+                writeColumnar(jsonGenerator, users);
+            } else {
+                users.accept(userResponse -> {
+                    try {
+                        jsonGenerator.writeObject(userResponse);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            jsonGenerator.writeEndArray();
+        }
+    }
+
+    private static void writeColumnar(JsonGenerator jsonGenerator, Consumer<Consumer<UserResponse>> users)
+            throws IOException {
+        List<UserResponse> block = new ArrayList<>(COLUMNAR_BLOCK_SIZE);
+        users.accept(userResponse -> {
+            block.add(userResponse);
+            if (block.size() == COLUMNAR_BLOCK_SIZE) {
+                writeBlock(jsonGenerator, block);
+                block.clear();
+            }
+        });
+
+        if (!block.isEmpty()) {
+            writeBlock(jsonGenerator, block);
+        }
+    }
+
+    private static void writeBlock(JsonGenerator jsonGenerator, List<UserResponse> block) {
+        try {
+            jsonGenerator.writeStartObject();
+
+            jsonGenerator.writeArrayFieldStart("uuid");
+            for (UserResponse userResponse : block) {
+                jsonGenerator.writeString(userResponse.getUuid().toString());
+            }
+            jsonGenerator.writeEndArray();
+
+            jsonGenerator.writeArrayFieldStart("name");
+            for (UserResponse userResponse : block) {
+                jsonGenerator.writeString(userResponse.getName());
+            }
+            jsonGenerator.writeEndArray();
+
+            jsonGenerator.writeArrayFieldStart("age");
+            for (UserResponse userResponse : block) {
+                if (userResponse.getAge() == null) {
+                    jsonGenerator.writeNull();
+                } else {
+                    jsonGenerator.writeNumber(userResponse.getAge());
+                }
+            }
+            jsonGenerator.writeEndArray();
+
+            jsonGenerator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
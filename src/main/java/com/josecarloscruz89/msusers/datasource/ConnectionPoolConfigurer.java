@@ -0,0 +1,64 @@
+package com.josecarloscruz89.msusers.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Applies {@link ConnectionPoolProperties} to the Hikari pools and publishes the effective settings as the
+ * users.datasource.pool.setting gauge, so the sizing of a running instance can be read from its metrics.
+ */
+@Component
+public class ConnectionPoolConfigurer implements MeterBinder {
+
+    private static final String POSTGRES_URL_PREFIX = "jdbc:postgresql:";
+
+    private final ConnectionPoolProperties properties;
+
+    public ConnectionPoolConfigurer(ConnectionPoolProperties properties) {
+        this.properties = properties;
+    }
+
+    public void configure(HikariDataSource dataSource) {
+        dataSource.setMaximumPoolSize(properties.poolSize());
+        dataSource.setMinimumIdle(properties.idleConnections());
+        dataSource.setConnectionTimeout(properties.connectionTimeout().toMillis());
+        dataSource.setLeakDetectionThreshold(properties.leakDetectionThreshold().toMillis());
+
+        if (dataSource.getJdbcUrl() != null && dataSource.getJdbcUrl().startsWith(POSTGRES_URL_PREFIX)) {
+            dataSource.addDataSourceProperty("prepareThreshold", properties.prepareThreshold());
+            dataSource.addDataSourceProperty("preparedStatementCacheQueries",
+                    properties.preparedStatementCacheQueries());
+            dataSource.addDataSourceProperty("preparedStatementCacheSizeMiB",
+                    properties.preparedStatementCacheSizeMb());
+            dataSource.addDataSourceProperty("reWriteBatchedInserts", properties.reWriteBatchedInserts());
+            dataSource.addDataSourceProperty("socketTimeout", properties.socketTimeout().toSeconds());
+            dataSource.addDataSourceProperty("connectTimeout", properties.connectTimeout().toSeconds());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        Map<String, Number> settings = new LinkedHashMap<>();
+        settings.put("maximumPoolSize", properties.poolSize());
+        settings.put("minimumIdle", properties.idleConnections());
+        settings.put("connectionTimeoutSeconds", properties.connectionTimeout().toSeconds());
+        settings.put("leakDetectionThresholdSeconds", properties.leakDetectionThreshold().toSeconds());
+        settings.put("prepareThreshold", properties.prepareThreshold());
+        settings.put("preparedStatementCacheQueries", properties.preparedStatementCacheQueries());
+        settings.put("preparedStatementCacheSizeMb", properties.preparedStatementCacheSizeMb());
+        settings.put("reWriteBatchedInserts", properties.reWriteBatchedInserts() ? 1 : 0);
+        settings.put("socketTimeoutSeconds", properties.socketTimeout().toSeconds());
+        settings.put("connectTimeoutSeconds", properties.connectTimeout().toSeconds());
+
+        settings.forEach((setting, value) -> Gauge.builder("users.datasource.pool.setting", value, Number::doubleValue)
+                .description("Connection pool and driver setting applied to every pool")
+                .tag("setting", setting)
+                .register(meterRegistry));
+    }
+}
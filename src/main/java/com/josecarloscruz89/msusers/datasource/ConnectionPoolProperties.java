@@ -0,0 +1,79 @@
+package com.josecarloscruz89.msusers.datasource;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Settings of every connection pool and of the Postgres driver behind it. They take precedence over
+ * spring.datasource.hikari.*, and the driver settings are only passed to Postgres JDBC URLs.
+ *
+ * @param maximumPoolSize               connections per pool, 0 to size the pool as
+ *                                      {@code (databaseCores * 2 + effectiveSpindleCount) / instances}
+ * @param effectiveSpindleCount         disks the database can read from concurrently, used to size the pool
+ * @param databaseCores                 cores of the database server, required to size the pool
+ * @param instances                     instances of the service sharing the database, used to size the pool
+ * @param minimumIdle                   idle connections kept open, the whole pool when not set
+ * @param connectionTimeout             how long a request waits for a free connection before failing
+ * @param leakDetectionThreshold        logs connections held longer than this, 0 to disable
+ * @param prepareThreshold              executions of a statement before the driver prepares it on the server,
+ *                                      0 to never prepare
+ * @param preparedStatementCacheQueries server prepared statements cached per connection
+ * @param preparedStatementCacheSizeMb  memory of the prepared statement cache per connection
+ * @param reWriteBatchedInserts         whether batched inserts are rewritten into multi-row inserts
+ * @param socketTimeout                 how long a query may wait on the socket before failing, 0 to disable
+ * @param connectTimeout                how long opening a connection may take
+ */
+@Validated
+@ConfigurationProperties(prefix = "users.datasource.pool")
+public record ConnectionPoolProperties(@DefaultValue("10") @Min(0) int maximumPoolSize,
+                                       @DefaultValue("1") @Min(0) int effectiveSpindleCount,
+                                       @DefaultValue("0") @Min(0) int databaseCores,
+                                       @DefaultValue("1") @Min(1) int instances,
+                                       @Min(0) Integer minimumIdle,
+                                       @DefaultValue("30s") @NotNull Duration connectionTimeout,
+                                       @DefaultValue("0s") @NotNull Duration leakDetectionThreshold,
+                                       @DefaultValue("5") @Min(0) int prepareThreshold,
+                                       @DefaultValue("256") @Min(0) int preparedStatementCacheQueries,
+                                       @DefaultValue("5") @Min(0) int preparedStatementCacheSizeMb,
+                                       @DefaultValue("true") boolean reWriteBatchedInserts,
+                                       @DefaultValue("0s") @NotNull Duration socketTimeout,
+                                       @DefaultValue("10s") @NotNull Duration connectTimeout) {
+
+    /**
+     * The rule of thumb counts the cores of the database, which serves every instance, not the cores of the host
+     * running this service.
+     */
+    public int poolSize() {
+        if (maximumPoolSize > 0) {
+            return maximumPoolSize;
+        }
+
+        int connections = databaseCores * 2 + effectiveSpindleCount;
+        return Math.max(1, (connections + instances - 1) / instances);
+    }
+
+    public int idleConnections() {
+        return minimumIdle == null ? poolSize() : minimumIdle;
+    }
+
+    @AssertTrue(message = "The database cores must be set when the maximum pool size is 0")
+    public boolean isPoolSizeKnown() {
+        return maximumPoolSize > 0 || databaseCores > 0;
+    }
+
+    @AssertTrue(message = "The minimum idle connections must not exceed the pool size")
+    public boolean isMinimumIdleWithinPoolSize() {
+        return idleConnections() <= poolSize();
+    }
+
+    @AssertTrue(message = "The leak detection threshold must be 0 or at least 2 seconds")
+    public boolean isLeakDetectionThresholdSupported() {
+        return leakDetectionThreshold.isZero() || leakDetectionThreshold.compareTo(Duration.ofSeconds(2)) >= 0;
+    }
+}
@@ -0,0 +1,130 @@
+package com.josecarloscruz89.msusers.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replicas that are within the lag tolerance, round robin, and everything
+ * else to the primary. The transaction flags are only known once the transaction has started, so this data source
+ * must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = ThreadLocal.withInitial(() -> false);
+
+    private final Map<String, DataSource> replicas;
+
+    private final Duration maxLag;
+
+    private final String lagQuery;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile List<String> availableReplicas = List.of();
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                      String lagQuery) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+
+        Map<Object, Object> targetDataSources = new HashMap<>(replicas);
+        targetDataSources.put(PRIMARY, primary);
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Runs the reads of the supplier on the primary even inside a read-only transaction.
+     */
+    public static <T> T usePrimary(Supplier<T> supplier) {
+        if (FORCE_PRIMARY.get()) {
+            return supplier.get();
+        }
+
+        FORCE_PRIMARY.set(true);
+        try {
+            return supplier.get();
+        } finally {
+            FORCE_PRIMARY.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (FORCE_PRIMARY.get() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+
+        List<String> candidates = availableReplicas;
+        if (candidates.isEmpty()) {
+            return PRIMARY;
+        }
+
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    /**
+     * Measures the lag of every replica and only keeps routing reads to the ones within the tolerance.
+     * A replica that cannot be reached counts as lagging.
+     */
+    public void checkReplicaLag() {
+        List<String> withinLag = new ArrayList<>();
+        replicas.forEach((name, replica) -> {
+            try {
+                Duration lag = measureLag(replica);
+                if (lag.compareTo(maxLag) <= 0) {
+                    withinLag.add(name);
+                } else {
+                    log.warn("Replica {} is {} behind the primary, routing its reads to the primary", name, lag);
+                }
+            } catch (SQLException e) {
+                log.warn("Could not measure the lag of replica {}, routing its reads to the primary", name, e);
+            }
+        });
+
+        availableReplicas = List.copyOf(withinLag);
+    }
+
+    public List<String> getAvailableReplicas() {
+        return availableReplicas;
+    }
+
+    /**
+     * Closes the replica pools, the primary is managed by its own bean.
+     */
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private Duration measureLag(DataSource replica) throws SQLException {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            resultSet.next();
+            return Duration.ofMillis(Math.round(resultSet.getDouble(1) * 1000));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.josecarloscruz89.msusers.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the users written by this instance for a short window, and sends reads of those users to the
+ * primary so a replica that has not replayed the write yet cannot serve, or get cached, the old state.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final long MAXIMUM_TRACKED_WRITES = 100_000;
+
+    private final boolean enabled;
+
+    private final Cache<UUID, Boolean> recentWrites;
+
+    public ReadYourWrites(RoutingDataSourceProperties properties) {
+        this.enabled = properties.enabled();
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_TRACKED_WRITES)
+                .expireAfterWrite(properties.readYourWritesWindow())
+                .build();
+    }
+
+    public void written(UUID userId) {
+        if (enabled) {
+            recentWrites.put(userId, Boolean.TRUE);
+        }
+    }
+
+    public void written(Collection<UUID> userIds) {
+        userIds.forEach(this::written);
+    }
+
+    public <T> T read(UUID userId, Supplier<T> supplier) {
+        return recentlyWritten(userId) ? ReadWriteRoutingDataSource.usePrimary(supplier) : supplier.get();
+    }
+
+    public <T> T read(Collection<UUID> userIds, Supplier<T> supplier) {
+        return userIds.stream().anyMatch(this::recentlyWritten)
+                ? ReadWriteRoutingDataSource.usePrimary(supplier)
+                : supplier.get();
+    }
+
+    private boolean recentlyWritten(UUID userId) {
+        return enabled && recentWrites.getIfPresent(userId) != null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.josecarloscruz89.msusers.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the read replica routing. The primary is the regular spring.datasource.
+ *
+ * @param enabled              whether read-only transactions are sent to the replicas
+ * @param replicas             connection settings of each replica
+ * @param maxLag               replicas further behind the primary than this are skipped until they catch up
+ * @param lagCheckInterval     how often the lag of each replica is measured
+ * @param lagQuery             query returning the replica lag in seconds, Postgres streaming replication by default
+ * @param readYourWritesWindow how long reads of a user written by this instance keep going to the primary
+ */
+@ConfigurationProperties(prefix = "users.datasource.routing")
+public record RoutingDataSourceProperties(@DefaultValue("false") boolean enabled,
+                                          @DefaultValue List<Replica> replicas,
+                                          @DefaultValue("10s") Duration maxLag,
+                                          @DefaultValue("5s") Duration lagCheckInterval,
+                                          @DefaultValue(POSTGRES_LAG_QUERY) String lagQuery,
+                                          @DefaultValue("5s") Duration readYourWritesWindow) {
+
+    public static final String POSTGRES_LAG_QUERY = "SELECT CASE WHEN pg_is_in_recovery() " +
+            "THEN COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) ELSE 0 END";
+
+    public record Replica(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.josecarloscruz89.msusers.exception;
+
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.josecarloscruz89.msusers.exception;
+
+import com.josecarloscruz89.msusers.model.dto.ItemErrorResponse;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class InvalidItemsException extends RuntimeException {
+
+    private final List<ItemErrorResponse> errors;
+
+    public InvalidItemsException(List<ItemErrorResponse> errors) {
+        this.errors = errors;
+    }
+}
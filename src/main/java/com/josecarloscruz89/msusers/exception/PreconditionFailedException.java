@@ -0,0 +1,7 @@
+package com.josecarloscruz89.msusers.exception;
+
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+public class PreconditionFailedException extends RuntimeException {
+}
@@ -0,0 +1,8 @@
+package com.josecarloscruz89.msusers.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
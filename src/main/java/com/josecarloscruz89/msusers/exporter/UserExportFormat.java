@@ -0,0 +1,46 @@
+package com.josecarloscruz89.msusers.exporter;
+
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+public enum UserExportFormat {
+
+    CSV(MediaType.parseMediaType(UserExportFormat.TEXT_CSV_VALUE), "csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson");
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+
+    private final String extension;
+
+    UserExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Picks the first format the client accepts, the accepted types being sorted by preference, so a wildcard
+     * Accept header gets CSV.
+     */
+    public static UserExportFormat negotiate(List<MediaType> acceptedMediaTypes) {
+        for (MediaType acceptedMediaType : acceptedMediaTypes) {
+            for (UserExportFormat format : values()) {
+                if (acceptedMediaType.isCompatibleWith(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+
+        return CSV;
+    }
+}
@@ -0,0 +1,199 @@
+package com.josecarloscruz89.msusers.exporter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes the users ordered by id straight from the database to an output stream, without mapping them to
+ * entities or holding more than one fetch of rows. CSV is produced by PostgreSQL itself with COPY ... TO STDOUT,
+ * NDJSON and CSV on other databases are written from a server-side cursor of {@value #FETCH_SIZE} rows.
+ * Both CSV variants write the same header and values, which the import accepts back. The range is exclusive
+ * at both ends, so an interrupted export resumes after the last id it wrote.
+ */
+@Component
+public class UserExporter {
+
+    static final int FETCH_SIZE = 1000;
+
+    static final String CSV_HEADER = "uuid,name,age,created_at,updated_at\n";
+
+    /**
+     * The format PostgreSQL writes timestamps in: a space between date and time and no trailing zeros.
+     */
+    private static final DateTimeFormatter CSV_TIMESTAMP = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .appendLiteral(' ')
+            .append(DateTimeFormatter.ISO_LOCAL_TIME)
+            .toFormatter();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JsonFactory jsonFactory;
+
+    private final Counter exportedCounter;
+
+    public UserExporter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonFactory = objectMapper.getFactory();
+        this.exportedCounter = Counter.builder("users.export.rows")
+                .description("Users written by exports")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the number of users written. Must run inside a transaction, which keeps the cursor open between
+     * fetches.
+     */
+    public long export(UserExportFormat format, UUID after, UUID before, OutputStream outputStream) {
+        Long exported = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                if (format == UserExportFormat.CSV && connection.isWrapperFor(PGConnection.class)) {
+                    return connection.unwrap(PGConnection.class)
+                            .getCopyAPI()
+                            .copyOut("COPY (" + select(after, before, true) + ") TO STDOUT (FORMAT csv, HEADER)",
+                                    outputStream);
+                }
+                return query(connection, format, after, before, outputStream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        exportedCounter.increment(exported);
+        return exported;
+    }
+
+    private long query(Connection connection, UserExportFormat format, UUID after, UUID before,
+                       OutputStream outputStream) throws SQLException, IOException {
+        try (PreparedStatement statement = connection.prepareStatement(select(after, before, false),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(FETCH_SIZE);
+
+            int parameter = 1;
+            if (after != null) {
+                statement.setObject(parameter++, after);
+            }
+            if (before != null) {
+                statement.setObject(parameter, before);
+            }
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return format == UserExportFormat.CSV ? writeCsv(resultSet, outputStream) :
+                        writeNdjson(resultSet, outputStream);
+            }
+        }
+    }
+
+    /**
+     * The ids are inlined as literals for COPY, which takes no parameters. They are parsed UUIDs, so they cannot
+     * carry anything else.
+     */
+    private static String select(UUID after, UUID before, boolean inline) {
+        List<String> conditions = new ArrayList<>();
+        if (after != null) {
+            conditions.add("uuid > " + (inline ? "'" + after + "'" : "?"));
+        }
+        if (before != null) {
+            conditions.add("uuid < " + (inline ? "'" + before + "'" : "?"));
+        }
+
+        return "SELECT uuid, name, age, created_at, updated_at FROM users" +
+                (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions)) +
+                " ORDER BY uuid";
+    }
+
+    private static long writeCsv(ResultSet resultSet, OutputStream outputStream) throws SQLException, IOException {
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+
+        while (resultSet.next()) {
+            writer.write(resultSet.getString(1));
+            writer.write(',');
+            writeCsvField(writer, resultSet.getString(2));
+            writer.write(',');
+            int age = resultSet.getInt(3);
+            if (!resultSet.wasNull()) {
+                writer.write(Integer.toString(age));
+            }
+            writer.write(',');
+            writer.write(CSV_TIMESTAMP.format(resultSet.getObject(4, LocalDateTime.class)));
+            writer.write(',');
+            writer.write(CSV_TIMESTAMP.format(resultSet.getObject(5, LocalDateTime.class)));
+            writer.write('\n');
+            rows++;
+        }
+
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * Quotes the same fields PostgreSQL does: empty ones, to tell them from null, and the ones holding a
+     * delimiter, a quote or a line break.
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (!value.isEmpty() && value.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r')) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private long writeNdjson(ResultSet resultSet, OutputStream outputStream) throws SQLException, IOException {
+        long rows = 0;
+        try (JsonGenerator jsonGenerator = jsonFactory.createGenerator(outputStream)) {
+            jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            jsonGenerator.setRootValueSeparator(null);
+
+            while (resultSet.next()) {
+                jsonGenerator.writeStartObject();
+                jsonGenerator.writeStringField("uuid", resultSet.getString(1));
+                jsonGenerator.writeStringField("name", resultSet.getString(2));
+                int age = resultSet.getInt(3);
+                if (resultSet.wasNull()) {
+                    jsonGenerator.writeNullField("age");
+                } else {
+                    jsonGenerator.writeNumberField("age", age);
+                }
+                jsonGenerator.writeStringField("createdAt",
+                        DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(resultSet.getObject(4, LocalDateTime.class)));
+                jsonGenerator.writeStringField("updatedAt",
+                        DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(resultSet.getObject(5, LocalDateTime.class)));
+                jsonGenerator.writeEndObject();
+                jsonGenerator.writeRaw('\n');
+                rows++;
+            }
+        }
+
+        return rows;
+    }
+}
@@ -0,0 +1,174 @@
+package com.josecarloscruz89.msusers.importer;
+
+import com.josecarloscruz89.msusers.exception.BadRequestException;
+import com.josecarloscruz89.msusers.model.dto.UserRequest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads RFC 4180 CSV with a header row naming the name and age columns, in any order and among other columns.
+ * Quoted fields may hold delimiters, doubled quotes and line breaks. A row with the wrong number of columns or
+ * an age that is not a number is reported as invalid and the next rows are still read. A record longer than
+ * maxRowLength characters is reported as invalid too, and reading goes on at the next line break.
+ */
+class CsvUserRowReader implements UserRowReader {
+
+    private static final int NONE = -2;
+
+    private final Reader reader;
+
+    private final int maxRowLength;
+
+    private final List<String> fields = new ArrayList<>();
+
+    private final StringBuilder field = new StringBuilder();
+
+    private int peeked = NONE;
+
+    private int columns;
+
+    private int nameColumn = -1;
+
+    private int ageColumn = -1;
+
+    private int index;
+
+    CsvUserRowReader(Reader reader, int maxRowLength) throws IOException {
+        this.reader = reader;
+        this.maxRowLength = maxRowLength;
+
+        if (readRecord() != null) {
+            throw new BadRequestException("The CSV header could not be read");
+        }
+        if (fields.isEmpty()) {
+            return;
+        }
+
+        columns = fields.size();
+        for (int column = 0; column < columns; column++) {
+            switch (fields.get(column).strip().toLowerCase(Locale.ROOT)) {
+                case "name" -> nameColumn = column;
+                case "age" -> ageColumn = column;
+                default -> {
+                }
+            }
+        }
+
+        if (nameColumn < 0 || ageColumn < 0) {
+            throw new BadRequestException("The CSV header must contain the name and age columns");
+        }
+    }
+
+    @Override
+    public UserImportRow next() throws IOException {
+        if (columns == 0) {
+            return null;
+        }
+
+        String error = readRecord();
+        if (error == null && fields.isEmpty()) {
+            return null;
+        }
+
+        int rowIndex = index++;
+        if (error != null) {
+            return UserImportRow.invalid(rowIndex, error);
+        }
+        if (fields.size() != columns) {
+            return UserImportRow.invalid(rowIndex, "Expected " + columns + " columns but found " + fields.size());
+        }
+
+        String age = fields.get(ageColumn).strip();
+        UserRequest userRequest = new UserRequest(fields.get(nameColumn), null);
+        if (!age.isEmpty()) {
+            try {
+                userRequest.setAge(Integer.valueOf(age));
+            } catch (NumberFormatException e) {
+                return UserImportRow.invalid(rowIndex, "The field age must be a whole number");
+            }
+        }
+
+        return UserImportRow.valid(rowIndex, userRequest);
+    }
+
+    /**
+     * Reads the fields of the next non-blank record, leaving them empty at the end of the file. Returns the
+     * reason the record is malformed, or null.
+     */
+    private String readRecord() throws IOException {
+        fields.clear();
+        field.setLength(0);
+
+        boolean quoted = false;
+        boolean empty = true;
+        int length = 0;
+        int c;
+        while ((c = read()) != -1) {
+            if (++length > maxRowLength) {
+                fields.clear();
+                field.setLength(0);
+                skipLine(c);
+                return "The row is longer than " + maxRowLength + " characters";
+            }
+
+            if (quoted) {
+                if (c != '"') {
+                    field.append((char) c);
+                } else if (peek() == '"') {
+                    field.append((char) read());
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+                empty = false;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                empty = false;
+            } else if (c == '\n') {
+                if (!empty || !field.isEmpty()) {
+                    break;
+                }
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+
+        if (quoted) {
+            fields.add(field.toString());
+            return "Unterminated quoted field";
+        }
+        if (!empty || !field.isEmpty()) {
+            fields.add(field.toString());
+        }
+
+        return null;
+    }
+
+    private void skipLine(int c) throws IOException {
+        while (c != '\n' && c != -1) {
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (peeked != NONE) {
+            int c = peeked;
+            peeked = NONE;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (peeked == NONE) {
+            peeked = reader.read();
+        }
+        return peeked;
+    }
+}
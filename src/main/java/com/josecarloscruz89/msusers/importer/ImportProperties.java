@@ -0,0 +1,28 @@
+package com.josecarloscruz89.msusers.importer;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Settings of the bulk user import.
+ *
+ * @param chunkSize          rows validated together and copied into the database in one transaction
+ * @param parallelism        threads validating chunks while the next ones are read, 0 to use one per processor
+ * @param maxReportedRejects rejected rows listed in the import report, the rest are only counted
+ * @param maxRowLength       characters a row may hold, so a malformed row, e.g. an unterminated CSV quote, cannot
+ *                           pull the rest of the file into memory; a longer row is rejected and reading goes on at
+ *                           the next line
+ */
+@Validated
+@ConfigurationProperties(prefix = "users.import")
+public record ImportProperties(@DefaultValue("10000") @Min(1) int chunkSize,
+                               @DefaultValue("0") @Min(0) int parallelism,
+                               @DefaultValue("1000") @Min(0) int maxReportedRejects,
+                               @DefaultValue("1024") @Min(1) int maxRowLength) {
+
+    public int threads() {
+        return parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism;
+    }
+}
@@ -0,0 +1,77 @@
+package com.josecarloscruz89.msusers.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.josecarloscruz89.msusers.model.dto.UserRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads one JSON user per line, skipping blank lines. Each line is parsed on its own, so a malformed line is
+ * reported as invalid and the next lines are still read. A line longer than maxRowLength characters is reported
+ * as invalid without being held in memory.
+ */
+class NdjsonUserRowReader implements UserRowReader {
+
+    private final BufferedReader reader;
+
+    private final ObjectReader objectReader;
+
+    private final int maxRowLength;
+
+    private final StringBuilder line = new StringBuilder();
+
+    private int index;
+
+    private boolean endOfFile;
+
+    NdjsonUserRowReader(BufferedReader reader, ObjectReader objectReader, int maxRowLength) {
+        this.reader = reader;
+        this.objectReader = objectReader.forType(UserRequest.class);
+        this.maxRowLength = maxRowLength;
+    }
+
+    @Override
+    public UserImportRow next() throws IOException {
+        boolean tooLong;
+        do {
+            tooLong = readLine();
+            if (line.isEmpty() && !tooLong && endOfFile) {
+                return null;
+            }
+        } while (!tooLong && line.toString().isBlank());
+
+        int rowIndex = index++;
+        if (tooLong) {
+            return UserImportRow.invalid(rowIndex, "The row is longer than " + maxRowLength + " characters");
+        }
+
+        try {
+            UserRequest userRequest = objectReader.readValue(line.toString());
+            return userRequest == null ? UserImportRow.invalid(rowIndex, "Expected a JSON object") :
+                    UserImportRow.valid(rowIndex, userRequest);
+        } catch (JsonProcessingException e) {
+            return UserImportRow.invalid(rowIndex, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Reads the next line into line, keeping at most maxRowLength characters of it, and returns whether it was
+     * longer.
+     */
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        boolean tooLong = false;
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (line.length() < maxRowLength) {
+                line.append((char) c);
+            } else {
+                tooLong = true;
+            }
+        }
+        endOfFile = c == -1;
+        return tooLong;
+    }
+}
@@ -0,0 +1,28 @@
+package com.josecarloscruz89.msusers.importer;
+
+import com.josecarloscruz89.msusers.exception.BadRequestException;
+import org.springframework.http.MediaType;
+
+public enum UserImportFormat {
+
+    CSV(MediaType.parseMediaType(UserImportFormat.TEXT_CSV_VALUE)),
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+
+    UserImportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public static UserImportFormat fromMediaType(MediaType mediaType) {
+        for (UserImportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(mediaType)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("The import must be " + TEXT_CSV_VALUE + " or " +
+                MediaType.APPLICATION_NDJSON_VALUE);
+    }
+}
@@ -0,0 +1,19 @@
+package com.josecarloscruz89.msusers.importer;
+
+import com.josecarloscruz89.msusers.model.dto.UserRequest;
+
+/**
+ * A row read from an import file, with either the request it holds or the reason it could not be read.
+ *
+ * @param index position of the row in the file, starting at 0 and not counting the CSV header
+ */
+record UserImportRow(int index, UserRequest userRequest, String error) {
+
+    static UserImportRow valid(int index, UserRequest userRequest) {
+        return new UserImportRow(index, userRequest, null);
+    }
+
+    static UserImportRow invalid(int index, String error) {
+        return new UserImportRow(index, null, error);
+    }
+}
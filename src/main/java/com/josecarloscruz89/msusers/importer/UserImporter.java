@@ -0,0 +1,285 @@
+package com.josecarloscruz89.msusers.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.josecarloscruz89.msusers.model.dto.ItemErrorResponse;
+import com.josecarloscruz89.msusers.model.dto.UserImportResponse;
+import com.josecarloscruz89.msusers.model.entity.UserEntity;
+import com.josecarloscruz89.msusers.model.entity.UuidV7Generator;
+import com.josecarloscruz89.msusers.outbox.UserOutbox;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Imports users from a CSV or NDJSON stream. The stream is read row by row into chunks of chunk-size rows, and
+ * while the next chunks are read, up to parallelism chunks are validated with the same rules as a created user
+ * and encoded on other threads. The chunks are then copied into the database in file order, each one with a
+ * single COPY in its own transaction, so at most parallelism + 1 chunks are held in memory whatever the size of
+ * the file. Chunks are committed as they are copied: an import failing midway keeps the chunks before it. Each
+ * chunk appends its created users to the {@link UserOutbox} in the same transaction, with a second COPY.
+ * Databases other than PostgreSQL, used by the benchmarks, get JDBC batch inserts instead of COPY.
+ */
+@Slf4j
+@Component
+public class UserImporter {
+
+    static final String COPY_USERS = "COPY users (uuid, name, age, version, updated_at, created_at) " +
+            "FROM STDIN (FORMAT csv)";
+
+    static final String INSERT_USER = "INSERT INTO users (uuid, name, age, version, updated_at, created_at) " +
+            "VALUES (?, ?, ?, 0, ?, ?)";
+
+    private static final int PROGRESS_LOG_CHUNKS = 100;
+
+    private final ImportProperties properties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final UserOutbox userOutbox;
+
+    private final Counter importedCounter;
+
+    private final Counter rejectedCounter;
+
+    private final Timer copyTimer;
+
+    public UserImporter(ImportProperties properties, JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate, Validator validator, ObjectMapper objectMapper,
+                        UserOutbox userOutbox, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.userOutbox = userOutbox;
+
+        this.importedCounter = Counter.builder("users.import.rows")
+                .description("Rows of import files, by outcome")
+                .tag("outcome", "imported")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("users.import.rows")
+                .description("Rows of import files, by outcome")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        this.copyTimer = Timer.builder("users.import.copy")
+                .description("Time to copy a chunk of imported users into the database")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public UserImportResponse importUsers(InputStream inputStream, UserImportFormat format, Charset charset)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, charset));
+        UserRowReader rowReader = switch (format) {
+            case CSV -> new CsvUserRowReader(reader, properties.maxRowLength());
+            case NDJSON -> new NdjsonUserRowReader(reader, objectMapper.reader(), properties.maxRowLength());
+        };
+
+        boolean copy = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.isWrapperFor(PGConnection.class)));
+        int threads = properties.threads();
+        ImportReport report = new ImportReport(properties.maxReportedRejects());
+        Deque<Future<Chunk>> pendingChunks = new ArrayDeque<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<UserImportRow> rows = new ArrayList<>(properties.chunkSize());
+            UserImportRow row;
+            while ((row = rowReader.next()) != null) {
+                rows.add(row);
+                if (rows.size() == properties.chunkSize()) {
+                    List<UserImportRow> chunkRows = rows;
+                    pendingChunks.add(executor.submit(() -> prepare(chunkRows, copy)));
+                    rows = new ArrayList<>(properties.chunkSize());
+
+                    if (pendingChunks.size() > threads) {
+                        write(pendingChunks.poll(), copy, report);
+                    }
+                }
+            }
+
+            if (!rows.isEmpty()) {
+                List<UserImportRow> chunkRows = rows;
+                pendingChunks.add(executor.submit(() -> prepare(chunkRows, copy)));
+            }
+            while (!pendingChunks.isEmpty()) {
+                write(pendingChunks.poll(), copy, report);
+            }
+        } finally {
+            pendingChunks.forEach(pendingChunk -> pendingChunk.cancel(false));
+        }
+
+        log.info("Imported {} users and rejected {} rows", report.imported, report.rejected);
+        return UserImportResponse.builder()
+                .imported(report.imported)
+                .rejected(report.rejected)
+                .rejects(report.rejects)
+                .build();
+    }
+
+    /**
+     * Validates the rows of a chunk and turns the valid ones into users, along with their COPY input when the
+     * database supports COPY.
+     */
+    private Chunk prepare(List<UserImportRow> rows, boolean copy) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ItemErrorResponse> rejects = new ArrayList<>();
+        List<UserEntity> users = new ArrayList<>(rows.size());
+        StringBuilder copyData = new StringBuilder(copy ? rows.size() * 96 : 0);
+        int valid = 0;
+
+        for (UserImportRow row : rows) {
+            if (row.error() != null) {
+                rejects.add(new ItemErrorResponse(row.index(), row.error()));
+                continue;
+            }
+
+            int rejectsBefore = rejects.size();
+            validator.validate(row.userRequest())
+                    .forEach(violation -> rejects.add(new ItemErrorResponse(row.index(), violation.getMessage())));
+            if (rejects.size() > rejectsBefore) {
+                continue;
+            }
+
+            valid++;
+            UUID uuid = UuidV7Generator.next();
+            String name = row.userRequest().getName();
+            Integer age = row.userRequest().getAge();
+            users.add(UserEntity.builder()
+                    .uuid(uuid)
+                    .name(name)
+                    .age(age)
+                    .version(0L)
+                    .updatedAt(now)
+                    .createdAt(now)
+                    .build());
+            if (copy) {
+                copyData.append(uuid).append(",\"").append(name.replace("\"", "\"\"")).append("\",")
+                        .append(age).append(",0,").append(now).append(',').append(now).append('\n');
+            }
+        }
+
+        return new Chunk(valid, rows.size() - valid,
+                copy ? copyData.toString().getBytes(StandardCharsets.UTF_8) : null, users, rejects);
+    }
+
+    private void write(Future<Chunk> pendingChunk, boolean copy, ImportReport report) {
+        Chunk chunk;
+        try {
+            chunk = pendingChunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The import was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+
+        if (chunk.valid() > 0) {
+            copyTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                if (copy) {
+                    copy(chunk.copyData());
+                    userOutbox.copyCreated(chunk.users());
+                } else {
+                    jdbcTemplate.batchUpdate(INSERT_USER, chunk.users(), chunk.users().size(),
+                            (statement, userEntity) -> {
+                                statement.setObject(1, userEntity.getUuid());
+                                statement.setString(2, userEntity.getName());
+                                statement.setObject(3, userEntity.getAge(), Types.INTEGER);
+                                statement.setObject(4, userEntity.getUpdatedAt());
+                                statement.setObject(5, userEntity.getCreatedAt());
+                            });
+                    userOutbox.created(chunk.users());
+                }
+            }));
+        }
+
+        report.add(chunk);
+        importedCounter.increment(chunk.valid());
+        rejectedCounter.increment(chunk.rejected());
+
+        if (++report.chunks % PROGRESS_LOG_CHUNKS == 0) {
+            log.info("Import in progress: {} users imported and {} rows rejected", report.imported, report.rejected);
+        }
+    }
+
+    private void copy(byte[] copyData) {
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class)
+                        .getCopyAPI()
+                        .copyIn(COPY_USERS, new ByteArrayInputStream(copyData));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private record Chunk(int valid, int rejected, byte[] copyData, List<UserEntity> users,
+                         List<ItemErrorResponse> rejects) {
+    }
+
+    /**
+     * Totals of an import. A row breaking several rules is counted once but listed with every message.
+     */
+    private static final class ImportReport {
+
+        private final int maxReportedRejects;
+
+        private final List<ItemErrorResponse> rejects = new ArrayList<>();
+
+        private long imported;
+
+        private long rejected;
+
+        private long chunks;
+
+        private ImportReport(int maxReportedRejects) {
+            this.maxReportedRejects = maxReportedRejects;
+        }
+
+        private void add(Chunk chunk) {
+            imported += chunk.valid();
+            rejected += chunk.rejected();
+
+            int room = maxReportedRejects - rejects.size();
+            if (room > 0) {
+                rejects.addAll(chunk.rejects().subList(0, Math.min(room, chunk.rejects().size())));
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.josecarloscruz89.msusers.importer;
+
+import java.io.IOException;
+
+/**
+ * Reads an import file one row at a time, so the file is never held in memory.
+ */
+interface UserRowReader {
+
+    /**
+     * Returns the next row, or null once the file is over.
+     */
+    UserImportRow next() throws IOException;
+}
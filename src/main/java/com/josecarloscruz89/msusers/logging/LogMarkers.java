@@ -0,0 +1,16 @@
+package com.josecarloscruz89.msusers.logging;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+public final class LogMarkers {
+
+    /**
+     * High-volume events, such as one per read, of which only users.logging.read-sample-rate are written, see
+     * {@link SamplingTurboFilter}.
+     */
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private LogMarkers() {
+    }
+}
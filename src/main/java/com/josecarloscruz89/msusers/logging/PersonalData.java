@@ -0,0 +1,23 @@
+package com.josecarloscruz89.msusers.logging;
+
+/**
+ * Masks personal data before it reaches a log line. The toString of every class holding a user name writes it
+ * through {@link #mask}, so logging a request or a user never writes the name.
+ */
+public final class PersonalData {
+
+    private static final String MASK = "***";
+
+    private PersonalData() {
+    }
+
+    /**
+     * Keeps the first character, so log lines about different users can still be told apart at a glance.
+     */
+    public static String mask(String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        return value.substring(0, Character.charCount(value.codePointAt(0))) + MASK;
+    }
+}
@@ -0,0 +1,41 @@
+package com.josecarloscruz89.msusers.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lets through one in rate of the events marked {@link LogMarkers#SAMPLED}, chosen at random so request threads
+ * share no counter, and denies the others. Turbo filters run before the level check, so a denied event never
+ * has its arguments rendered. Other events are left to the rest of the configuration.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private int rate = 1;
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public void start() {
+        if (rate < 1) {
+            addError("The sample rate must be at least 1 but was " + rate);
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        if (marker == null || !marker.contains(LogMarkers.SAMPLED) || rate == 1) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextInt(rate) == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,83 @@
+package com.josecarloscruz89.msusers.metrics;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts every statement executed through its connections in {@link QueryCounter}, whether Hibernate, a
+ * JdbcTemplate or plain JDBC sends it. A batch counts once, as it is sent in one round trip, and so does a
+ * PostgreSQL COPY, counted when its copy API is requested. Statements prepared while no count is in progress are
+ * returned as they are, so threads outside of a request pay nothing past the connection proxy.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    public QueryCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingConnection(super.getConnection(username, password));
+    }
+
+    private static Connection countingConnection(Connection connection) {
+        return (Connection) proxy(Connection.class, connection, (method, args, result) -> {
+            if (result instanceof Statement && QueryCounter.isCounting()) {
+                return proxy(method.getReturnType(), result, (statementMethod, statementArgs, statementResult) -> {
+                    if (statementMethod.getName().startsWith("execute")) {
+                        QueryCounter.increment();
+                    }
+                    return statementResult;
+                });
+            }
+            if (method.getName().equals("unwrap") && args[0] == PGConnection.class) {
+                return proxy(PGConnection.class, result, (pgMethod, pgArgs, pgResult) -> {
+                    if (pgMethod.getName().equals("getCopyAPI")) {
+                        QueryCounter.increment();
+                    }
+                    return pgResult;
+                });
+            }
+            return result;
+        });
+    }
+
+    private static Object proxy(Class<?> type, Object target, ResultHandler resultHandler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return resultHandler.handle(method, args, result);
+        };
+
+        return Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                invocationHandler);
+    }
+
+    @FunctionalInterface
+    private interface ResultHandler {
+
+        Object handle(Method method, Object[] args, Object result);
+    }
+}
@@ -0,0 +1,11 @@
+package com.josecarloscruz89.msusers.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class ItemErrorResponse {
+    private Integer index;
+    private String message;
+}
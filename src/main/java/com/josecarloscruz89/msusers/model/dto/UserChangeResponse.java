@@ -0,0 +1,41 @@
+package com.josecarloscruz89.msusers.model.dto;
+
+import com.josecarloscruz89.msusers.logging.PersonalData;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A change of one user. Created and updated users carry their state after the change, deleted users only
+ * their id and last version.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserChangeResponse {
+
+    private UserChangeType type;
+
+    private UUID uuid;
+
+    @ToString.Exclude
+    private String name;
+
+    private Integer age;
+
+    private Long version;
+
+    private LocalDateTime occurredAt;
+
+    @ToString.Include(name = "name")
+    private String maskedName() {
+        return PersonalData.mask(name);
+    }
+
+}
@@ -0,0 +1,7 @@
+package com.josecarloscruz89.msusers.model.dto;
+
+public enum UserChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
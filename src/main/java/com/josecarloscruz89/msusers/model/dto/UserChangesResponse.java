@@ -0,0 +1,20 @@
+package com.josecarloscruz89.msusers.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserChangesResponse {
+
+    private List<UserChangeResponse> changes;
+
+    private String nextCursor;
+
+}
@@ -0,0 +1,22 @@
+package com.josecarloscruz89.msusers.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportResponse {
+
+    private long imported;
+
+    private long rejected;
+
+    private List<ItemErrorResponse> rejects;
+
+}
@@ -1,5 +1,6 @@
 package com.josecarloscruz89.msusers.model.dto;
 
+import com.josecarloscruz89.msusers.logging.PersonalData;
 import com.josecarloscruz89.msusers.validation.annotation.ValidName;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -7,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @Builder
@@ -16,9 +18,15 @@ public class UserRequest {
 
     @NotEmpty(message = "The field name is required")
     @ValidName
+    @ToString.Exclude
     private String name;
 
     @NotNull(message = "The field age is required")
     private Integer age;
 
+    @ToString.Include(name = "name")
+    private String maskedName() {
+        return PersonalData.mask(name);
+    }
+
 }
\ No newline at end of file
@@ -1,10 +1,16 @@
 package com.josecarloscruz89.msusers.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.josecarloscruz89.msusers.logging.PersonalData;
 import com.josecarloscruz89.msusers.model.entity.UserEntity;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Data
 @Builder
@@ -12,18 +18,40 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class UserResponse {
 
-    private String uuid;
+    private UUID uuid;
 
+    @ToString.Exclude
     private String name;
 
     private Integer age;
 
+    /**
+     * Version and last update of the row the response was read from, sent as the ETag and Last-Modified headers.
+     * Cached responses keep them, so a conditional request can be answered without reading the row again.
+     */
+    @JsonIgnore
+    private Long version;
+
+    @JsonIgnore
+    private LocalDateTime updatedAt;
+
+    public UserResponse(UUID uuid, String name, Integer age) {
+        this(uuid, name, age, null, null);
+    }
+
     public static UserResponse valueOf(UserEntity userEntity) {
         return UserResponse.builder()
                 .age(userEntity.getAge())
                 .name(userEntity.getName())
                 .uuid(userEntity.getUuid())
+                .version(userEntity.getVersion())
+                .updatedAt(userEntity.getUpdatedAt())
                 .build();
     }
 
+    @ToString.Include(name = "name")
+    private String maskedName() {
+        return PersonalData.mask(name);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.josecarloscruz89.msusers.model.dto;
+
+import com.josecarloscruz89.msusers.logging.PersonalData;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSearchRequest {
+
+    @ToString.Exclude
+    private String name;
+
+    private Integer minAge;
+
+    private Integer maxAge;
+
+    private String sort;
+
+    private String direction;
+
+    private String cursor;
+
+    private Integer limit;
+
+    @ToString.Include(name = "name")
+    private String maskedName() {
+        return PersonalData.mask(name);
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.josecarloscruz89.msusers.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSyncResponse {
+
+    private List<UserResponse> users;
+
+    private List<UUID> deletedIds;
+
+    private String nextCursor;
+
+}
@@ -1,19 +1,21 @@
 package com.josecarloscruz89.msusers.model.entity;
 
+import com.josecarloscruz89.msusers.logging.PersonalData;
 import com.josecarloscruz89.msusers.model.dto.UserRequest;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.GenericGenerator;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Builder
 @Data
@@ -25,16 +27,20 @@ public class UserEntity {
 
     @Id
     @Column(name = "uuid")
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
-    private String uuid;
+    @UuidV7
+    private UUID uuid;
 
     @Column(name = "name")
+    @ToString.Exclude
     private String name;
 
     @Column(name = "age")
     private Integer age;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @Column(name = "updated_at")
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy HH:mm:SS")
     private LocalDateTime updatedAt;
@@ -50,9 +56,8 @@ public class UserEntity {
                 .build();
     }
 
-    public void updateValues(UserRequest userRequest) {
-        this.name = userRequest.getName();
-        this.age = userRequest.getAge();
-        this.updatedAt = LocalDateTime.now();
+    @ToString.Include(name = "name")
+    private String maskedName() {
+        return PersonalData.mask(name);
     }
 }
\ No newline at end of file
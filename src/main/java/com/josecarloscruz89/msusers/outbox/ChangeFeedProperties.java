@@ -0,0 +1,25 @@
+package com.josecarloscruz89.msusers.outbox;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Settings of the user change feed.
+ *
+ * @param maxBatchSize most changes returned by one poll or sent in one server-sent event
+ * @param maxWait      longest a poll waits for new changes before answering with none
+ * @param pollInterval how often a waiting poll checks the outbox for new changes
+ * @param pollThreads  threads checking the outbox for every waiting poll
+ */
+@Validated
+@ConfigurationProperties(prefix = "users.changes")
+public record ChangeFeedProperties(@DefaultValue("500") @Min(1) int maxBatchSize,
+                                   @DefaultValue("30s") @NotNull Duration maxWait,
+                                   @DefaultValue("250ms") @NotNull Duration pollInterval,
+                                   @DefaultValue("2") @Min(1) int pollThreads) {
+}
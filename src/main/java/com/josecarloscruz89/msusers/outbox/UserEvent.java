@@ -0,0 +1,9 @@
+package com.josecarloscruz89.msusers.outbox;
+
+import com.josecarloscruz89.msusers.model.dto.UserChangeResponse;
+
+/**
+ * A change read back from the outbox, with its position in it: the transaction that appended it, then its id.
+ */
+public record UserEvent(long txid, long id, UserChangeResponse change) {
+}
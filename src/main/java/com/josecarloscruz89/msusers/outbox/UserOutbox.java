@@ -0,0 +1,257 @@
+package com.josecarloscruz89.msusers.outbox;
+
+import com.josecarloscruz89.msusers.model.dto.UserChangeResponse;
+import com.josecarloscruz89.msusers.model.dto.UserChangeType;
+import com.josecarloscruz89.msusers.model.entity.UserEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transactional outbox of user changes. Every change is appended to the user_events table by the transaction
+ * that makes it, so a change is in the outbox if and only if it was committed, and consumers read the outbox
+ * instead of rescanning the users. Delivery is at least once: a change may be read twice, for example when the
+ * write-behind queue replays users it had already inserted, so consumers should apply changes by user id and
+ * version.
+ * <p>
+ * Ids are taken when a transaction inserts, not when it commits, so a lower id can become visible after a higher
+ * one. On PostgreSQL each event also records the id of its transaction, and the outbox is read in (txid, id)
+ * order and only up to the oldest transaction still running: every transaction before that point has ended,
+ * and every later one gets a higher txid, so nothing can commit behind a consumer's position. A long transaction
+ * therefore holds the feed back until it ends. Other databases, used by the tests and benchmarks, are read in id
+ * order.
+ */
+@Component
+public class UserOutbox implements DisposableBean {
+
+    static final String INSERT_EVENT = "INSERT INTO user_events (user_uuid, type, name, age, version, occurred_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    static final String COPY_EVENTS = "COPY user_events (user_uuid, type, name, age, version, occurred_at) " +
+            "FROM STDIN (FORMAT csv)";
+
+    private static final String INSERT_UPDATED_EVENTS = "INSERT INTO user_events " +
+            "(user_uuid, type, name, age, version, occurred_at) " +
+            "SELECT uuid, 'UPDATED', name, age, version, :occurredAt FROM users WHERE uuid IN (:uuids)";
+
+    private static final String INSERT_DELETED_EVENTS = "INSERT INTO user_events " +
+            "(user_uuid, type, version, occurred_at) " +
+            "SELECT uuid, 'DELETED', version, :occurredAt FROM users WHERE uuid IN (:uuids)";
+
+    private static final String SELECT_EVENTS = "SELECT txid, id, user_uuid, type, name, age, version, occurred_at " +
+            "FROM user_events WHERE (txid, id) > (?, ?) ORDER BY txid, id LIMIT ?";
+
+    private static final String SELECT_COMMITTED_EVENTS = "SELECT txid, id, user_uuid, type, name, age, version, " +
+            "occurred_at FROM user_events WHERE (txid, id) > (?, ?) " +
+            "AND txid < txid_snapshot_xmin(txid_current_snapshot()) ORDER BY txid, id LIMIT ?";
+
+    private static final String SELECT_VERSION = "SELECT 0, count(*) FROM user_events";
+
+    private static final String SELECT_COMMITTED_VERSION = "SELECT txid_snapshot_xmin(txid_current_snapshot()), " +
+            "count(*) FROM user_events WHERE txid >= txid_snapshot_xmin(txid_current_snapshot())";
+
+    private static final String SELECT_DELETED_AFTER = "SELECT user_uuid, occurred_at FROM user_events " +
+            "WHERE type = 'DELETED' AND (occurred_at, user_uuid) > (?, ?) ORDER BY occurred_at, user_uuid LIMIT ?";
+
+    private static final RowMapper<UserEvent> USER_EVENT_MAPPER = (resultSet, rowNumber) -> new UserEvent(
+            resultSet.getLong(1),
+            resultSet.getLong(2),
+            UserChangeResponse.builder()
+                    .uuid(resultSet.getObject(3, UUID.class))
+                    .type(UserChangeType.valueOf(resultSet.getString(4)))
+                    .name(resultSet.getString(5))
+                    .age(resultSet.getObject(6, Integer.class))
+                    .version(resultSet.getObject(7, Long.class))
+                    .occurredAt(resultSet.getObject(8, LocalDateTime.class))
+                    .build());
+
+    private final ChangeFeedProperties properties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final Counter appendedCounter;
+
+    private final ScheduledExecutorService poller;
+
+    private volatile Boolean postgres;
+
+    public UserOutbox(ChangeFeedProperties properties, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.poller = Executors.newScheduledThreadPool(properties.pollThreads(), Thread.ofPlatform()
+                .name("user-changes-poller-", 0)
+                .daemon()
+                .factory());
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.appendedCounter = Counter.builder("users.outbox.appended")
+                .description("User changes appended to the outbox")
+                .register(meterRegistry);
+    }
+
+    public int maxBatchSize() {
+        return properties.maxBatchSize();
+    }
+
+    /**
+     * Appends the users as they were created, in one JDBC batch.
+     */
+    public void created(Collection<UserEntity> userEntities) {
+        jdbcTemplate.batchUpdate(INSERT_EVENT, userEntities, userEntities.size(), (statement, userEntity) -> {
+            statement.setObject(1, userEntity.getUuid());
+            statement.setString(2, UserChangeType.CREATED.name());
+            statement.setString(3, userEntity.getName());
+            statement.setObject(4, userEntity.getAge(), Types.INTEGER);
+            statement.setLong(5, userEntity.getVersion() == null ? 0 : userEntity.getVersion());
+            statement.setObject(6, userEntity.getCreatedAt());
+        });
+        appendedCounter.increment(userEntities.size());
+    }
+
+    /**
+     * Appends the users as they were created with a single COPY, for PostgreSQL callers creating users in bulk.
+     */
+    public void copyCreated(Collection<UserEntity> userEntities) {
+        StringBuilder copyData = new StringBuilder(userEntities.size() * 80);
+        for (UserEntity userEntity : userEntities) {
+            copyData.append(userEntity.getUuid()).append(",CREATED,\"")
+                    .append(userEntity.getName().replace("\"", "\"\"")).append("\",")
+                    .append(userEntity.getAge() == null ? "" : userEntity.getAge()).append(',')
+                    .append(userEntity.getVersion() == null ? 0 : userEntity.getVersion()).append(',')
+                    .append(userEntity.getCreatedAt()).append('\n');
+        }
+
+        byte[] copyBytes = copyData.toString().getBytes(StandardCharsets.UTF_8);
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class)
+                        .getCopyAPI()
+                        .copyIn(COPY_EVENTS, new ByteArrayInputStream(copyBytes));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        appendedCounter.increment(userEntities.size());
+    }
+
+    /**
+     * Appends the users as they are now, so it must run after the update in the same transaction.
+     */
+    public void updated(Collection<UUID> userIds, LocalDateTime occurredAt) {
+        append(INSERT_UPDATED_EVENTS, userIds, occurredAt);
+    }
+
+    /**
+     * Appends the deletion of the users that still exist, so it must run before the delete in the same
+     * transaction.
+     */
+    public void deleted(Collection<UUID> userIds, LocalDateTime occurredAt) {
+        append(INSERT_DELETED_EVENTS, userIds, occurredAt);
+    }
+
+    /**
+     * Returns up to limit committed changes after the given position, oldest first.
+     */
+    public List<UserEvent> poll(long afterTxid, long afterId, int limit) {
+        return jdbcTemplate.query(postgres() ? SELECT_COMMITTED_EVENTS : SELECT_EVENTS, USER_EVENT_MAPPER, afterTxid,
+                afterId, limit);
+    }
+
+    /**
+     * Returns a value that changes whenever a change is committed and never comes back, so it can stand for the
+     * state of every user. Events are never removed, so their count only grows. On PostgreSQL only the events
+     * of the transactions from the oldest one still running are counted, through the (txid, id) index, next to
+     * that transaction's txid: a transaction committing there adds to the count, and one committing behind it
+     * moves the oldest running transaction forward. A long transaction therefore widens the range counted
+     * until it ends.
+     */
+    public String version() {
+        return jdbcTemplate.queryForObject(postgres() ? SELECT_COMMITTED_VERSION : SELECT_VERSION,
+                (resultSet, rowNumber) -> resultSet.getLong(1) + "-" + resultSet.getLong(2));
+    }
+
+    /**
+     * Completes with the first changes after the given position, or with none once max-wait is over. Waiting
+     * holds no thread: the outbox is checked every poll-interval by the poll-threads poller threads, shared by
+     * every waiting consumer.
+     */
+    public CompletableFuture<List<UserEvent>> await(long afterTxid, long afterId, int limit) {
+        CompletableFuture<List<UserEvent>> events = new CompletableFuture<>();
+        long deadline = System.nanoTime() + properties.maxWait().toNanos();
+        try {
+            poller.execute(() -> check(events, afterTxid, afterId, limit, deadline));
+        } catch (RejectedExecutionException e) {
+            events.completeExceptionally(e);
+        }
+        return events;
+    }
+
+    /**
+     * Returns up to limit deletions ordered by (deletion time, user id) that come after the given pair, for
+     * clients syncing by time rather than by outbox position.
+     */
+    public List<UserTombstone> findDeletedAfter(LocalDateTime afterDeletedAt, UUID afterUuid, int limit) {
+        return jdbcTemplate.query(SELECT_DELETED_AFTER, (resultSet, rowNumber) -> new UserTombstone(
+                        resultSet.getObject(1, UUID.class), resultSet.getObject(2, LocalDateTime.class)),
+                afterDeletedAt, afterUuid, limit);
+    }
+
+    @Override
+    public void destroy() {
+        poller.shutdownNow();
+    }
+
+    private void check(CompletableFuture<List<UserEvent>> events, long afterTxid, long afterId, int limit,
+                       long deadline) {
+        try {
+            List<UserEvent> polledEvents = poll(afterTxid, afterId, limit);
+            if (!polledEvents.isEmpty() || System.nanoTime() >= deadline) {
+                events.complete(polledEvents);
+                return;
+            }
+
+            poller.schedule(() -> check(events, afterTxid, afterId, limit, deadline),
+                    properties.pollInterval().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            events.completeExceptionally(e);
+        }
+    }
+
+    private boolean postgres() {
+        if (postgres == null) {
+            postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.isWrapperFor(PGConnection.class)));
+        }
+        return postgres;
+    }
+
+    private void append(String sql, Collection<UUID> userIds, LocalDateTime occurredAt) {
+        int appended = namedParameterJdbcTemplate.update(sql, new MapSqlParameterSource()
+                .addValue("occurredAt", occurredAt)
+                .addValue("uuids", userIds));
+        appendedCounter.increment(appended);
+    }
+}
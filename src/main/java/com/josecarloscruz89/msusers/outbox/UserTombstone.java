@@ -0,0 +1,10 @@
+package com.josecarloscruz89.msusers.outbox;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A deleted user, read back from the outbox.
+ */
+public record UserTombstone(UUID uuid, LocalDateTime deletedAt) {
+}
@@ -0,0 +1,117 @@
+package com.josecarloscruz89.msusers.repository;
+
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import com.josecarloscruz89.msusers.outbox.UserOutbox;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * R2DBC access to the users table for the reactive profile, issuing the same statements as {@link UserRepository},
+ * and to the user_events table, appending the same events as {@link UserOutbox}. Like the outbox, the append
+ * methods must run in the transaction making the change.
+ */
+@Profile("reactive")
+@Repository
+public class ReactiveUserRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveUserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<UserResponse> findAll() {
+        return databaseClient.sql("SELECT uuid, name, age FROM users ORDER BY uuid")
+                .map(ReactiveUserRepository::toUserResponse)
+                .all();
+    }
+
+    public Mono<UserResponse> findById(UUID uuid) {
+        return databaseClient.sql("SELECT uuid, name, age FROM users WHERE uuid = :uuid")
+                .bind("uuid", uuid)
+                .map(ReactiveUserRepository::toUserResponse)
+                .one();
+    }
+
+    public Mono<Void> insert(UUID uuid, String name, Integer age, LocalDateTime createdAt) {
+        return bindNullable(databaseClient.sql("INSERT INTO users (uuid, name, age, updated_at, created_at) " +
+                                "VALUES (:uuid, :name, :age, :createdAt, :createdAt)")
+                        .bind("uuid", uuid)
+                        .bind("createdAt", createdAt), name, age)
+                .then();
+    }
+
+    public Mono<Long> updateNameAndAge(UUID uuid, String name, Integer age, LocalDateTime updatedAt) {
+        return bindNullable(databaseClient.sql("UPDATE users SET name = :name, age = :age, updated_at = :updatedAt, " +
+                                "version = version + 1 WHERE uuid = :uuid")
+                        .bind("uuid", uuid)
+                        .bind("updatedAt", updatedAt), name, age)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> partialUpdate(UUID uuid, String name, Integer age, LocalDateTime updatedAt) {
+        return bindNullable(databaseClient.sql("UPDATE users SET name = coalesce(:name, name), " +
+                                "age = coalesce(:age, age), updated_at = :updatedAt, version = version + 1 " +
+                                "WHERE uuid = :uuid")
+                        .bind("uuid", uuid)
+                        .bind("updatedAt", updatedAt), name, age)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteByUuid(UUID uuid) {
+        return databaseClient.sql("DELETE FROM users WHERE uuid = :uuid")
+                .bind("uuid", uuid)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Void> appendCreated(UUID uuid, String name, Integer age, LocalDateTime createdAt) {
+        return bindNullable(databaseClient.sql("INSERT INTO user_events (user_uuid, type, name, age, version, " +
+                                "occurred_at) VALUES (:uuid, 'CREATED', :name, :age, 0, :createdAt)")
+                        .bind("uuid", uuid)
+                        .bind("createdAt", createdAt), name, age)
+                .then();
+    }
+
+    /**
+     * Appends the user as it is now, so it must run after the update.
+     */
+    public Mono<Void> appendUpdated(UUID uuid, LocalDateTime occurredAt) {
+        return databaseClient.sql("INSERT INTO user_events (user_uuid, type, name, age, version, occurred_at) " +
+                        "SELECT uuid, 'UPDATED', name, age, version, :occurredAt FROM users WHERE uuid = :uuid")
+                .bind("uuid", uuid)
+                .bind("occurredAt", occurredAt)
+                .then();
+    }
+
+    /**
+     * Appends the deletion of the user if it still exists, so it must run before the delete.
+     */
+    public Mono<Void> appendDeleted(UUID uuid, LocalDateTime occurredAt) {
+        return databaseClient.sql("INSERT INTO user_events (user_uuid, type, version, occurred_at) " +
+                        "SELECT uuid, 'DELETED', version, :occurredAt FROM users WHERE uuid = :uuid")
+                .bind("uuid", uuid)
+                .bind("occurredAt", occurredAt)
+                .then();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                  String name, Integer age) {
+        spec = name == null ? spec.bindNull("name", String.class) : spec.bind("name", name);
+        return age == null ? spec.bindNull("age", Integer.class) : spec.bind("age", age);
+    }
+
+    private static UserResponse toUserResponse(Readable row) {
+        return new UserResponse(row.get("uuid", UUID.class), row.get("name", String.class),
+                row.get("age", Integer.class));
+    }
+}
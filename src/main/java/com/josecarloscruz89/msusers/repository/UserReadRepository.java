@@ -0,0 +1,26 @@
+package com.josecarloscruz89.msusers.repository;
+
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Per-request reads that select only the exposed columns into {@link UserResponse}, so no entity is hydrated,
+ * registered in the persistence context or snapshotted for dirty checking.
+ */
+public interface UserReadRepository {
+
+    Optional<UserResponse> findResponseByUuid(UUID uuid);
+
+    List<UserResponse> findAllByUuidIn(Collection<UUID> uuids);
+
+    List<UserResponse> findPageAfter(UUID after, int limit);
+
+    List<UserSearchResult> search(UserSearchQuery query);
+
+    List<UserResponse> findUpdatedAfter(LocalDateTime afterUpdatedAt, UUID afterUuid, int limit);
+}
@@ -0,0 +1,137 @@
+package com.josecarloscruz89.msusers.repository;
+
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Runs the queries through the entity manager instead of {@code @Query} methods, so they project straight into
+ * {@link UserResponse} without loading managed entities, and the search writes only the conditions of the filters
+ * it was given, with a keyset on (sort column, uuid) in place of an offset.
+ */
+@Transactional(readOnly = true)
+public class UserReadRepositoryImpl implements UserReadRepository {
+
+    private static final String SELECT_USER_RESPONSE =
+            "select new com.josecarloscruz89.msusers.model.dto.UserResponse(" +
+            "u.uuid, u.name, u.age, u.version, u.updatedAt) from UserEntity u ";
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<UserResponse> findResponseByUuid(UUID uuid) {
+        return entityManager.createQuery(SELECT_USER_RESPONSE + "where u.uuid = :uuid", UserResponse.class)
+                .setParameter("uuid", uuid)
+                .getResultStream()
+                .findFirst();
+    }
+
+    @Override
+    public List<UserResponse> findAllByUuidIn(Collection<UUID> uuids) {
+        return entityManager.createQuery(SELECT_USER_RESPONSE + "where u.uuid in :uuids", UserResponse.class)
+                .setParameter("uuids", uuids)
+                .getResultList();
+    }
+
+    @Override
+    public List<UserResponse> findPageAfter(UUID after, int limit) {
+        return entityManager.createQuery(SELECT_USER_RESPONSE + "where u.uuid > :after order by u.uuid",
+                        UserResponse.class)
+                .setParameter("after", after)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Filters and pages with a row comparison on (sort column, uuid), so Postgres walks the matching index
+     * from the last user of the previous page instead of skipping an offset. The filters only change which
+     * conditions are written, so each combination is parsed once and then served from Hibernate's query
+     * interpretation cache.
+     */
+    @Override
+    public List<UserSearchResult> search(UserSearchQuery query) {
+        String sortProperty = "u." + query.sort().getProperty();
+        String direction = query.descending() ? " desc" : " asc";
+
+        List<String> conditions = new ArrayList<>();
+        if (query.namePrefix() != null) {
+            conditions.add("lower(u.name) like :namePrefix escape '" + LIKE_ESCAPE + "'");
+        }
+        if (query.minAge() != null) {
+            conditions.add("u.age >= :minAge");
+        }
+        if (query.maxAge() != null) {
+            conditions.add("u.age <= :maxAge");
+        }
+        if (query.afterSortValue() != null) {
+            conditions.add("(" + sortProperty + ", u.uuid) " + (query.descending() ? "<" : ">") +
+                    " (:afterSortValue, :afterUuid)");
+        }
+
+        String jpql = "select u.uuid, u.name, u.age, u.version, u.updatedAt, " + sortProperty + " from UserEntity u" +
+                (conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions)) +
+                " order by " + sortProperty + direction + ", u.uuid" + direction;
+
+        TypedQuery<Object[]> typedQuery = entityManager.createQuery(jpql, Object[].class)
+                .setMaxResults(query.limit());
+
+        if (query.namePrefix() != null) {
+            typedQuery.setParameter("namePrefix", escapeLike(query.namePrefix().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (query.minAge() != null) {
+            typedQuery.setParameter("minAge", query.minAge());
+        }
+        if (query.maxAge() != null) {
+            typedQuery.setParameter("maxAge", query.maxAge());
+        }
+        if (query.afterSortValue() != null) {
+            typedQuery.setParameter("afterSortValue", query.afterSortValue());
+            typedQuery.setParameter("afterUuid", query.afterUuid());
+        }
+
+        return typedQuery.getResultStream()
+                .map(row -> new UserSearchResult(
+                        new UserResponse((UUID) row[0], (String) row[1], (Integer) row[2], (Long) row[3],
+                                (LocalDateTime) row[4]),
+                        (LocalDateTime) row[5]))
+                .toList();
+    }
+
+    /**
+     * Pages through the users by (updatedAt, uuid), walking the index on the same columns.
+     */
+    @Override
+    public List<UserResponse> findUpdatedAfter(LocalDateTime afterUpdatedAt, UUID afterUuid, int limit) {
+        return entityManager.createQuery(SELECT_USER_RESPONSE +
+                        "where (u.updatedAt, u.uuid) > (:afterUpdatedAt, :afterUuid) order by u.updatedAt, u.uuid",
+                        UserResponse.class)
+                .setParameter("afterUpdatedAt", afterUpdatedAt)
+                .setParameter("afterUuid", afterUuid)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char character : value.toCharArray()) {
+            if (character == LIKE_ESCAPE || character == '%' || character == '_') {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(character);
+        }
+        return escaped.toString();
+    }
+}
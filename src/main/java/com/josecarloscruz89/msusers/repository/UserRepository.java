@@ -1,9 +1,66 @@
 package com.josecarloscruz89.msusers.repository;
 
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
 import com.josecarloscruz89.msusers.model.entity.UserEntity;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
-public interface UserRepository extends JpaRepository<UserEntity, String> {
-}
\ No newline at end of file
+public interface UserRepository extends JpaRepository<UserEntity, UUID>, UserReadRepository {
+
+    @Query("select new com.josecarloscruz89.msusers.model.dto.UserResponse(u.uuid, u.name, u.age) " +
+            "from UserEntity u order by u.uuid")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<UserResponse> streamAll();
+
+    /**
+     * Bulk updates skip Hibernate's optimistic locking, so the version is incremented here. A null version
+     * updates the row whatever its version is, any other value only updates the row still at that version.
+     */
+    @Modifying
+    @Query("update UserEntity u set u.name = :name, u.age = :age, u.updatedAt = :updatedAt, " +
+            "u.version = u.version + 1 where u.uuid = :uuid and u.version = coalesce(:version, u.version)")
+    int updateNameAndAge(@Param("uuid") UUID uuid,
+                         @Param("version") Long version,
+                         @Param("name") String name,
+                         @Param("age") Integer age,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Null name or age keep the stored value. The columns are resolved against the row being updated,
+     * so concurrent partial updates of different fields do not overwrite each other.
+     */
+    @Modifying
+    @Query("update UserEntity u set u.name = coalesce(:name, u.name), u.age = coalesce(:age, u.age), " +
+            "u.updatedAt = :updatedAt, u.version = u.version + 1 " +
+            "where u.uuid = :uuid and u.version = coalesce(:version, u.version)")
+    int partialUpdate(@Param("uuid") UUID uuid,
+                      @Param("version") Long version,
+                      @Param("name") String name,
+                      @Param("age") Integer age,
+                      @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("delete from UserEntity u where u.uuid = :uuid")
+    int deleteByUuid(@Param("uuid") UUID uuid);
+
+    @Modifying
+    @Query("delete from UserEntity u where u.uuid in :uuids")
+    int deleteByUuidIn(@Param("uuids") Collection<UUID> uuids);
+}
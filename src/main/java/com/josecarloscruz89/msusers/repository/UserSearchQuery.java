@@ -0,0 +1,26 @@
+package com.josecarloscruz89.msusers.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A user search page. Null filters are not applied, and a null {@code afterSortValue} starts from the first user.
+ *
+ * @param namePrefix     case-insensitive prefix of the name
+ * @param minAge         minimum age, inclusive
+ * @param maxAge         maximum age, inclusive
+ * @param sort           column the users are sorted by, ties are broken by uuid
+ * @param descending     whether the newest users come first
+ * @param afterSortValue sort column value of the last user of the previous page
+ * @param afterUuid      uuid of the last user of the previous page
+ * @param limit          maximum number of users of the page
+ */
+public record UserSearchQuery(String namePrefix,
+                              Integer minAge,
+                              Integer maxAge,
+                              UserSearchSort sort,
+                              boolean descending,
+                              LocalDateTime afterSortValue,
+                              UUID afterUuid,
+                              int limit) {
+}
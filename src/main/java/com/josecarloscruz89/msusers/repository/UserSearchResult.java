@@ -0,0 +1,11 @@
+package com.josecarloscruz89.msusers.repository;
+
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user found by a search, with the value of the column it was sorted by so the next page can start after it.
+ */
+public record UserSearchResult(UserResponse user, LocalDateTime sortValue) {
+}
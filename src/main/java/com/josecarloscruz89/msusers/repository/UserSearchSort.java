@@ -0,0 +1,30 @@
+package com.josecarloscruz89.msusers.repository;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Columns a user search can be sorted by. Each one is backed by an index on (column, uuid), which is also the
+ * keyset the search pages through.
+ */
+public enum UserSearchSort {
+
+    CREATED_AT("createdAt"),
+    UPDATED_AT("updatedAt");
+
+    private final String property;
+
+    UserSearchSort(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static Optional<UserSearchSort> fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(sort -> sort.property.equals(property))
+                .findFirst();
+    }
+}
@@ -0,0 +1,96 @@
+package com.josecarloscruz89.msusers.service;
+
+import com.josecarloscruz89.msusers.exception.NotFoundException;
+import com.josecarloscruz89.msusers.logging.LogMarkers;
+import com.josecarloscruz89.msusers.model.dto.UserRequest;
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import com.josecarloscruz89.msusers.model.entity.UuidV7Generator;
+import com.josecarloscruz89.msusers.repository.ReactiveUserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Slf4j
+@Profile("reactive")
+@Service
+public class ReactiveUserService {
+
+    private final ReactiveUserRepository reactiveUserRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveUserService(ReactiveUserRepository reactiveUserRepository,
+                               TransactionalOperator transactionalOperator) {
+        this.reactiveUserRepository = reactiveUserRepository;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    /**
+     * Rows are requested from the database as the subscriber demands them, so a slow client slows the query
+     * down instead of buffering the table.
+     */
+    public Flux<UserResponse> getAllUsers() {
+        log.info("Streaming all users...");
+        return reactiveUserRepository.findAll();
+    }
+
+    public Mono<UserResponse> getUserById(UUID userId) {
+        log.info(LogMarkers.SAMPLED, "Getting user by id {}", userId);
+        return reactiveUserRepository.findById(userId)
+                .switchIfEmpty(Mono.error(NotFoundException::new));
+    }
+
+    public Mono<UUID> createUser(UserRequest userRequest) {
+        log.info("Creating a new user with: {}", userRequest);
+
+        UUID userId = UuidV7Generator.next();
+        LocalDateTime createdAt = LocalDateTime.now();
+
+        return reactiveUserRepository.insert(userId, userRequest.getName(), userRequest.getAge(), createdAt)
+                .then(reactiveUserRepository.appendCreated(userId, userRequest.getName(), userRequest.getAge(),
+                        createdAt))
+                .as(transactionalOperator::transactional)
+                .thenReturn(userId);
+    }
+
+    public Mono<Void> updateUser(UserRequest userRequest, UUID userId) {
+        log.info("Updating userId: {} with {}", userId, userRequest);
+
+        LocalDateTime updatedAt = LocalDateTime.now();
+
+        return reactiveUserRepository.updateNameAndAge(userId, userRequest.getName(), userRequest.getAge(), updatedAt)
+                .flatMap(ReactiveUserService::requireUpdated)
+                .then(reactiveUserRepository.appendUpdated(userId, updatedAt))
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<Void> partialUpdateUser(UserRequest userRequest, UUID userId) {
+        log.info("Partial updating userId: {} with {}", userId, userRequest);
+
+        LocalDateTime updatedAt = LocalDateTime.now();
+
+        return reactiveUserRepository.partialUpdate(userId, userRequest.getName(), userRequest.getAge(), updatedAt)
+                .flatMap(ReactiveUserService::requireUpdated)
+                .then(reactiveUserRepository.appendUpdated(userId, updatedAt))
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<Void> deleteUserById(UUID userId) {
+        log.info("Deleting userId {}", userId);
+
+        return reactiveUserRepository.appendDeleted(userId, LocalDateTime.now())
+                .then(reactiveUserRepository.deleteByUuid(userId))
+                .as(transactionalOperator::transactional)
+                .then();
+    }
+
+    private static Mono<Void> requireUpdated(Long updatedRows) {
+        return updatedRows == 0 ? Mono.error(new NotFoundException()) : Mono.empty();
+    }
+}
@@ -1,82 +1,593 @@
 package com.josecarloscruz89.msusers.service;
 
+import com.josecarloscruz89.msusers.cache.UserCache;
+import com.josecarloscruz89.msusers.datasource.ReadYourWrites;
+import com.josecarloscruz89.msusers.exception.BadRequestException;
 import com.josecarloscruz89.msusers.exception.NotFoundException;
+import com.josecarloscruz89.msusers.exception.PreconditionFailedException;
+import com.josecarloscruz89.msusers.exporter.UserExportFormat;
+import com.josecarloscruz89.msusers.exporter.UserExporter;
+import com.josecarloscruz89.msusers.importer.UserImportFormat;
+import com.josecarloscruz89.msusers.importer.UserImporter;
+import com.josecarloscruz89.msusers.logging.LogMarkers;
+import com.josecarloscruz89.msusers.model.dto.UserChangesResponse;
+import com.josecarloscruz89.msusers.model.dto.UserImportResponse;
+import com.josecarloscruz89.msusers.model.dto.UserLookupResponse;
+import com.josecarloscruz89.msusers.model.dto.UserPageResponse;
 import com.josecarloscruz89.msusers.model.dto.UserRequest;
 import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import com.josecarloscruz89.msusers.model.dto.UserSearchRequest;
+import com.josecarloscruz89.msusers.model.dto.UserSyncResponse;
 import com.josecarloscruz89.msusers.model.entity.UserEntity;
+import com.josecarloscruz89.msusers.model.entity.UuidV7Generator;
+import com.josecarloscruz89.msusers.outbox.UserEvent;
+import com.josecarloscruz89.msusers.outbox.UserOutbox;
+import com.josecarloscruz89.msusers.outbox.UserTombstone;
 import com.josecarloscruz89.msusers.repository.UserRepository;
+import com.josecarloscruz89.msusers.repository.UserSearchQuery;
+import com.josecarloscruz89.msusers.repository.UserSearchResult;
+import com.josecarloscruz89.msusers.repository.UserSearchSort;
+import com.josecarloscruz89.msusers.writebehind.UserWriteBehind;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 public class UserService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    public static final int MAX_DELETE_IDS = 1000;
+
+    public static final int MAX_LOOKUP_IDS = 1000;
+
+    public static final int DEFAULT_SEARCH_LIMIT = 100;
+
+    private static final UUID FIRST_CURSOR = new UUID(0L, 0L);
+
+    private static final int CURSOR_BYTES = 16;
+
+    private static final int SEARCH_CURSOR_BYTES = Long.BYTES + Integer.BYTES + CURSOR_BYTES;
+
+    private static final int CHANGES_CURSOR_BYTES = Long.BYTES + Long.BYTES;
+
     private final UserRepository userRepository;
 
-    public UserService(UserRepository userRepository) {
+    private final UserCache userCache;
+
+    private final ReadYourWrites readYourWrites;
+
+    private final UserWriteBehind userWriteBehind;
+
+    private final UserImporter userImporter;
+
+    private final UserExporter userExporter;
+
+    private final UserOutbox userOutbox;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public UserService(UserRepository userRepository, UserCache userCache, ReadYourWrites readYourWrites,
+                       UserWriteBehind userWriteBehind, UserImporter userImporter, UserExporter userExporter,
+                       UserOutbox userOutbox, TransactionTemplate transactionTemplate) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.readYourWrites = readYourWrites;
+        this.userWriteBehind = userWriteBehind;
+        this.userImporter = userImporter;
+        this.userExporter = userExporter;
+        this.userOutbox = userOutbox;
+        this.transactionTemplate = transactionTemplate;
     }
 
-    public List<UserResponse> getAllUsers() {
-        log.info("Getting all users...");
-        return userRepository.findAll()
-                .stream()
-                .map(UserResponse::valueOf)
-                .toList();
+    /**
+     * Hands every user to the consumer while the rows are still being fetched from the database cursor,
+     * so the whole table is never held in memory at once.
+     */
+    @Timed(value = "users.service", extraTags = {"operation", "getAll"}, histogram = true)
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<UserResponse> consumer) {
+        log.info("Streaming all users...");
+        try (Stream<UserResponse> users = userRepository.streamAll()) {
+            users.forEach(consumer);
+        }
+    }
+
+    /**
+     * Writes the users with ids between after and before, both exclusive and optional, as CSV or NDJSON while
+     * they are read, see {@link UserExporter}. Being read-only, the export runs on a replica when there is one.
+     */
+    @Timed(value = "users.service", extraTags = {"operation", "export"}, histogram = true)
+    @Transactional(readOnly = true)
+    public void exportUsers(UserExportFormat format, UUID after, UUID before, OutputStream outputStream) {
+        log.info("Exporting users after {} and before {} as {}", after, before, format);
+        long exported = userExporter.export(format, after, before, outputStream);
+        log.info("Exported {} users", exported);
+    }
+
+    /**
+     * Returns the user changes committed after the cursor, oldest first, with the cursor to read the next ones
+     * from. Without a cursor it starts from the oldest change.
+     */
+    @Timed(value = "users.service", extraTags = {"operation", "getChanges"}, histogram = true)
+    public UserChangesResponse getChanges(String cursor, Integer limit) {
+        int batchSize = changesBatchSize(limit);
+        ByteBuffer after = changesCursor(cursor);
+        long afterTxid = after.getLong();
+        long afterId = after.getLong();
+
+        return changesResponse(userOutbox.poll(afterTxid, afterId, batchSize), afterTxid, afterId);
+    }
+
+    /**
+     * Like {@link #getChanges}, but when there is nothing new it waits up to users.changes.max-wait for changes,
+     * so consumers can long-poll instead of rereading the users. The wait holds no thread. An invalid cursor or
+     * limit is thrown right away rather than through the future.
+     */
+    @Timed(value = "users.service", extraTags = {"operation", "awaitChanges"}, histogram = true)
+    public CompletableFuture<UserChangesResponse> awaitChanges(String cursor, Integer limit) {
+        int batchSize = changesBatchSize(limit);
+        ByteBuffer after = changesCursor(cursor);
+        long afterTxid = after.getLong();
+        long afterId = after.getLong();
+
+        return userOutbox.await(afterTxid, afterId, batchSize)
+                .thenApply(events -> changesResponse(events, afterTxid, afterId));
+    }
+
+    /**
+     * Returns a value that changes whenever any user changes, so a client holding the full list can check it is
+     * still current without downloading it again. It comes from the outbox, which every change is appended to,
+     * rather than from a scan of the users. It is read before the users are streamed, so a write racing with the
+     * stream can only make the version older than the content, never newer.
+     */
+    @Timed(value = "users.service", extraTags = {"operation", "getVersion"}, histogram = true)
+    public String getUsersVersion() {
+        return userOutbox.version();
+    }
+
+    /**
+     * Returns the users ordered by uuid that come after the given cursor. The returned next cursor is null
+     * when there are no more users to read.
+     */
+    @Timed(value = "users.service", extraTags = {"operation", "getPage"}, histogram = true)
+    public UserPageResponse getUsersPage(String cursor, int limit) {
+        log.info(LogMarkers.SAMPLED, "Getting users page after cursor {} with limit {}", cursor, limit);
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("The limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        UUID after = cursor == null ? FIRST_CURSOR : readUuid(decodeCursor(cursor, CURSOR_BYTES));
+        List<UserResponse> users = userRepository.findPageAfter(after, limit);
+
+        String nextCursor = null;
+        if (users.size() == limit) {
+            ByteBuffer buffer = ByteBuffer.allocate(CURSOR_BYTES);
+            writeUuid(buffer, users.get(users.size() - 1).getUuid());
+            nextCursor = encodeCursor(buffer);
+        }
+
+        return UserPageResponse.builder()
+                .users(users)
+                .nextCursor(nextCursor)
+                .build();
     }
 
-    public UserResponse getUserById(String userId) {
-        log.info("Getting user by id {}", userId);
-        return userRepository.findById(userId)
-                .map(UserResponse::valueOf)
+    /**
+     * Returns the users matching every given filter, sorted by creation or update time and paged by keyset:
+     * the cursor holds the sort value and uuid of the last user returned, so each page is an index range scan.
+     */
+    @Timed(value = "users.service", extraTags = {"operation", "search"}, histogram = true)
+    public UserPageResponse searchUsers(UserSearchRequest userSearchRequest) {
+        log.info(LogMarkers.SAMPLED, "Searching users with {}", userSearchRequest);
+
+        int limit = userSearchRequest.getLimit() == null ? DEFAULT_SEARCH_LIMIT : userSearchRequest.getLimit();
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("The limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Integer minAge = userSearchRequest.getMinAge();
+        Integer maxAge = userSearchRequest.getMaxAge();
+        if ((minAge != null && minAge < 0) || (maxAge != null && maxAge < 0)) {
+            throw new BadRequestException("The age range must not be negative");
+        }
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new BadRequestException("The minAge must not be greater than the maxAge");
+        }
+
+        UserSearchSort sort = userSearchRequest.getSort() == null ? UserSearchSort.CREATED_AT :
+                UserSearchSort.fromProperty(userSearchRequest.getSort())
+                        .orElseThrow(() -> new BadRequestException("The sort must be createdAt or updatedAt"));
+
+        String direction = userSearchRequest.getDirection() == null ? "asc" : userSearchRequest.getDirection();
+        if (!direction.equals("asc") && !direction.equals("desc")) {
+            throw new BadRequestException("The direction must be asc or desc");
+        }
+
+        LocalDateTime afterSortValue = null;
+        UUID afterUuid = null;
+        if (userSearchRequest.getCursor() != null) {
+            ByteBuffer buffer = decodeCursor(userSearchRequest.getCursor(), SEARCH_CURSOR_BYTES);
+            afterSortValue = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            afterUuid = readUuid(buffer);
+        }
+
+        String name = userSearchRequest.getName() == null || userSearchRequest.getName().isBlank() ? null :
+                userSearchRequest.getName();
+
+        List<UserSearchResult> results = userRepository.search(new UserSearchQuery(name, minAge, maxAge, sort,
+                direction.equals("desc"), afterSortValue, afterUuid, limit));
+
+        String nextCursor = null;
+        if (results.size() == limit) {
+            UserSearchResult last = results.get(results.size() - 1);
+            ByteBuffer buffer = ByteBuffer.allocate(SEARCH_CURSOR_BYTES)
+                    .putLong(last.sortValue().toEpochSecond(ZoneOffset.UTC))
+                    .putInt(last.sortValue().getNano());
+            writeUuid(buffer, last.user().getUuid());
+            nextCursor = encodeCursor(buffer);
+        }
+
+        return UserPageResponse.builder()
+                .users(results.stream()
+                        .map(UserSearchResult::user)
+                        .toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Returns the users created or updated at or after updatedSince, and the ids of the users deleted since then,
+     * in (time, uuid) order and paged by keyset on the indexes of both. The next cursor is always returned, so a
+     * periodic sync job keeps it as its watermark; a page shorter than the limit means the job has caught up.
+     * Times are set before the change commits, so a job syncing right behind writes may miss a transaction that
+     * commits after a later one: start from a watermark some seconds old when that matters, or use the change
+     * feed. Both reads share a read-only transaction, so they run on a replica when there is one.
+     */
+    @Timed(value = "users.service", extraTags = {"operation", "sync"}, histogram = true)
+    @Transactional(readOnly = true)
+    public UserSyncResponse syncUsers(LocalDateTime updatedSince, String cursor, Integer limit) {
+        log.info(LogMarkers.SAMPLED, "Syncing users updated since {} after cursor {} with limit {}", updatedSince,
+                cursor, limit);
+
+        int pageSize = limit == null ? DEFAULT_SEARCH_LIMIT : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BadRequestException("The limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        LocalDateTime afterChangedAt = updatedSince;
+        UUID afterUuid = FIRST_CURSOR;
+        if (cursor != null) {
+            ByteBuffer buffer = decodeCursor(cursor, SEARCH_CURSOR_BYTES);
+            afterChangedAt = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            afterUuid = readUuid(buffer);
+        }
+
+        List<UserResponse> updatedUsers = userRepository.findUpdatedAfter(afterChangedAt, afterUuid, pageSize);
+        List<UserTombstone> tombstones = userOutbox.findDeletedAfter(afterChangedAt, afterUuid, pageSize);
+
+        List<UserResponse> users = new ArrayList<>();
+        List<UUID> deletedIds = new ArrayList<>();
+        int nextUser = 0;
+        int nextTombstone = 0;
+        while (users.size() + deletedIds.size() < pageSize &&
+                (nextUser < updatedUsers.size() || nextTombstone < tombstones.size())) {
+            UserResponse user = nextUser < updatedUsers.size() ? updatedUsers.get(nextUser) : null;
+            UserTombstone tombstone = nextTombstone < tombstones.size() ? tombstones.get(nextTombstone) : null;
+
+            if (tombstone == null || (user != null && compareChanges(user.getUpdatedAt(), user.getUuid(),
+                    tombstone.deletedAt(), tombstone.uuid()) < 0)) {
+                users.add(user);
+                afterChangedAt = user.getUpdatedAt();
+                afterUuid = user.getUuid();
+                nextUser++;
+            } else {
+                deletedIds.add(tombstone.uuid());
+                afterChangedAt = tombstone.deletedAt();
+                afterUuid = tombstone.uuid();
+                nextTombstone++;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(SEARCH_CURSOR_BYTES)
+                .putLong(afterChangedAt.toEpochSecond(ZoneOffset.UTC))
+                .putInt(afterChangedAt.getNano());
+        writeUuid(buffer, afterUuid);
+
+        return UserSyncResponse.builder()
+                .users(users)
+                .deletedIds(deletedIds)
+                .nextCursor(encodeCursor(buffer))
+                .build();
+    }
+
+    @Timed(value = "users.service", extraTags = {"operation", "getById"}, histogram = true)
+    public UserResponse getUserById(UUID userId) {
+        log.info(LogMarkers.SAMPLED, "Getting user by id {}", userId);
+        return userCache.get(userId, id -> readYourWrites.read(id, () -> userRepository.findResponseByUuid(id)))
                 .orElseThrow(NotFoundException::new);
     }
 
-    public String createUser(UserRequest userRequest) {
+    /**
+     * Resolves many users at once, in the order of the requested ids. Repeated ids are returned once, and ids
+     * of users that do not exist are reported back instead of failing the whole lookup.
+     */
+    @Timed(value = "users.service", extraTags = {"operation", "lookup"}, histogram = true)
+    public UserLookupResponse lookupUsers(List<UUID> userIds) {
+        log.info(LogMarkers.SAMPLED, "Looking up {} users by id", userIds.size());
+
+        if (userIds.isEmpty() || userIds.size() > MAX_LOOKUP_IDS) {
+            throw new BadRequestException("The ids must contain between 1 and " + MAX_LOOKUP_IDS + " values");
+        }
+
+        Set<UUID> distinctUserIds = new LinkedHashSet<>(userIds);
+        Map<UUID, Optional<UserResponse>> foundUsers = userCache.getAll(distinctUserIds, ids ->
+                readYourWrites.read(ids, () -> userRepository.findAllByUuidIn(ids))
+                        .stream()
+                        .collect(Collectors.toMap(UserResponse::getUuid, Function.identity())));
+
+        List<UserResponse> users = new ArrayList<>();
+        List<UUID> missingIds = new ArrayList<>();
+        distinctUserIds.forEach(userId -> foundUsers.get(userId)
+                .ifPresentOrElse(users::add, () -> missingIds.add(userId)));
+
+        return UserLookupResponse.builder()
+                .users(users)
+                .missingIds(missingIds)
+                .build();
+    }
+
+    /**
+     * In write-behind mode the id is assigned here and the user is only queued, so it can be read back once the
+     * queue is flushed, within users.write-behind.flush-interval under normal load, and its change is appended
+     * to the outbox by that flush. Only the direct insert opens a transaction, so a queued user never waits for
+     * a pooled connection.
+     */
+    @Timed(value = "users.service", extraTags = {"operation", "create"}, histogram = true)
+    public UUID createUser(UserRequest userRequest) {
         log.info("Creating a new user with: {}", userRequest);
 
         UserEntity userEntity = UserEntity.valueOf(userRequest);
         userEntity.setCreatedAt(LocalDateTime.now());
-        userEntity.setUpdatedAt(LocalDateTime.now());
+        userEntity.setUpdatedAt(userEntity.getCreatedAt());
+
+        if (userWriteBehind.isEnabled()) {
+            userEntity.setUuid(UuidV7Generator.next());
+            userWriteBehind.enqueue(userEntity);
+            readYourWrites.written(userEntity.getUuid());
+            return userEntity.getUuid();
+        }
 
-        UserEntity savedEntity = userRepository.save(userEntity);
+        return transactionTemplate.execute(status -> {
+            UserEntity savedEntity = userRepository.save(userEntity);
+            userOutbox.created(List.of(savedEntity));
+            readYourWrites.written(savedEntity.getUuid());
 
-        return savedEntity.getUuid();
+            return savedEntity.getUuid();
+        });
     }
 
-    public void updateUser(UserRequest userRequest, String userId) {
-        log.info("Updating userId: {} with {}", userId, userRequest);
-        UserEntity userEntity = userRepository.findById(userId)
-                .orElseThrow(NotFoundException::new);
+    /**
+     * Persists all users in a single transaction. Inserts are grouped into JDBC batches by Hibernate
+     * (see hibernate.jdbc.batch_size), so the ids are returned in the same order as the requests.
+     */
+    @Timed(value = "users.service", extraTags = {"operation", "createBatch"}, histogram = true)
+    @Transactional
+    public List<UUID> createUsers(List<UserRequest> userRequests) {
+        log.info("Creating {} users in batch", userRequests.size());
+
+        LocalDateTime now = LocalDateTime.now();
+        List<UserEntity> userEntities = userRequests.stream()
+                .map(UserEntity::valueOf)
+                .toList();
+
+        userEntities.forEach(userEntity -> {
+            userEntity.setCreatedAt(now);
+            userEntity.setUpdatedAt(now);
+        });
 
-        userEntity.updateValues(userRequest);
+        List<UserEntity> savedEntities = userRepository.saveAll(userEntities);
+        userOutbox.created(savedEntities);
 
-        userRepository.save(userEntity);
+        List<UUID> userIds = savedEntities.stream()
+                .map(UserEntity::getUuid)
+                .toList();
+        readYourWrites.written(userIds);
+
+        return userIds;
+    }
+
+    /**
+     * Imports every valid row of a CSV or NDJSON stream while it is still being read, see {@link UserImporter}.
+     * Invalid rows are reported back instead of failing the whole import.
+     */
+    @Timed(value = "users.service", extraTags = {"operation", "import"}, histogram = true)
+    public UserImportResponse importUsers(InputStream inputStream, UserImportFormat format, Charset charset)
+            throws IOException {
+        log.info("Importing users from {}", format);
+        return userImporter.importUsers(inputStream, format, charset);
     }
 
-    public void partialUpdateUser(UserRequest userRequest, String userId) {
-        log.info("Partial updating userId: {} with {}", userId, userRequest);
+    /**
+     * Updates the user only while it is still at the expected version, when one is given, so a client cannot
+     * overwrite a change it has not seen.
+     */
+    @Timed(value = "users.service", extraTags = {"operation", "update"}, histogram = true)
+    @Transactional
+    public void updateUser(UserRequest userRequest, UUID userId, Long expectedVersion) {
+        log.info("Updating userId: {} at version {} with {}", userId, expectedVersion, userRequest);
 
-        UserEntity userEntity = userRepository.findById(userId)
-                .orElseThrow(NotFoundException::new);
+        LocalDateTime now = LocalDateTime.now();
+        int updatedRows = userRepository.updateNameAndAge(userId, expectedVersion, userRequest.getName(),
+                userRequest.getAge(), now);
+
+        if (updatedRows == 0) {
+            throw updateFailure(userId, expectedVersion);
+        }
 
-        Optional.ofNullable(userRequest.getName()).ifPresent(userEntity::setName);
-        Optional.ofNullable(userRequest.getAge()).ifPresent(userEntity::setAge);
+        userOutbox.updated(List.of(userId), now);
+        userCache.invalidate(userId);
+        readYourWrites.written(userId);
+    }
+
+    @Timed(value = "users.service", extraTags = {"operation", "partialUpdate"}, histogram = true)
+    @Transactional
+    public void partialUpdateUser(UserRequest userRequest, UUID userId, Long expectedVersion) {
+        log.info("Partial updating userId: {} at version {} with {}", userId, expectedVersion, userRequest);
+
+        LocalDateTime now = LocalDateTime.now();
+        int updatedRows = userRepository.partialUpdate(userId, expectedVersion, userRequest.getName(),
+                userRequest.getAge(), now);
 
-        userEntity.setUpdatedAt(LocalDateTime.now());
+        if (updatedRows == 0) {
+            throw updateFailure(userId, expectedVersion);
+        }
 
-        userRepository.save(userEntity);
+        userOutbox.updated(List.of(userId), now);
+        userCache.invalidate(userId);
+        readYourWrites.written(userId);
     }
 
-    public void deleteUserById(String userId) {
+    @Timed(value = "users.service", extraTags = {"operation", "delete"}, histogram = true)
+    @Transactional
+    public void deleteUserById(UUID userId) {
         log.info("Deleting userId {}", userId);
 
-        userRepository.findById(userId)
-                .ifPresent(userRepository::delete);
+        userOutbox.deleted(List.of(userId), LocalDateTime.now());
+        userRepository.deleteByUuid(userId);
+        userCache.invalidate(userId);
+        readYourWrites.written(userId);
+    }
+
+    @Timed(value = "users.service", extraTags = {"operation", "deleteBatch"}, histogram = true)
+    @Transactional
+    public void deleteUsersByIds(Collection<UUID> userIds) {
+        log.info("Deleting {} users by id", userIds.size());
+
+        if (userIds.isEmpty() || userIds.size() > MAX_DELETE_IDS) {
+            throw new BadRequestException("The ids must contain between 1 and " + MAX_DELETE_IDS + " values");
+        }
+
+        Set<UUID> distinctUserIds = new HashSet<>(userIds);
+        userOutbox.deleted(distinctUserIds, LocalDateTime.now());
+        userRepository.deleteByUuidIn(distinctUserIds);
+        distinctUserIds.forEach(userCache::invalidate);
+        readYourWrites.written(distinctUserIds);
+    }
+
+    private RuntimeException updateFailure(UUID userId, Long expectedVersion) {
+        if (expectedVersion != null && userRepository.existsById(userId)) {
+            return new PreconditionFailedException();
+        }
+
+        return new NotFoundException();
+    }
+
+    private int changesBatchSize(Integer limit) {
+        int batchSize = limit == null ? userOutbox.maxBatchSize() : limit;
+        if (batchSize < 1 || batchSize > userOutbox.maxBatchSize()) {
+            throw new BadRequestException("The limit must be between 1 and " + userOutbox.maxBatchSize());
+        }
+        return batchSize;
+    }
+
+    private static ByteBuffer changesCursor(String cursor) {
+        return cursor == null ? ByteBuffer.allocate(CHANGES_CURSOR_BYTES) :
+                decodeCursor(cursor, CHANGES_CURSOR_BYTES);
+    }
+
+    /**
+     * The next cursor points at the last change returned, or stays where it was when there were none.
+     */
+    private static UserChangesResponse changesResponse(List<UserEvent> events, long afterTxid, long afterId) {
+        long lastTxid = afterTxid;
+        long lastId = afterId;
+        if (!events.isEmpty()) {
+            UserEvent lastEvent = events.get(events.size() - 1);
+            lastTxid = lastEvent.txid();
+            lastId = lastEvent.id();
+        }
+
+        return UserChangesResponse.builder()
+                .changes(events.stream()
+                        .map(UserEvent::change)
+                        .toList())
+                .nextCursor(encodeCursor(ByteBuffer.allocate(CHANGES_CURSOR_BYTES).putLong(lastTxid)
+                        .putLong(lastId)))
+                .build();
+    }
+
+    private static String encodeCursor(ByteBuffer buffer) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(buffer.array());
+    }
+
+    private static ByteBuffer decodeCursor(String cursor, int length) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("The cursor is invalid");
+        }
+
+        if (bytes.length != length) {
+            throw new BadRequestException("The cursor is invalid");
+        }
+
+        return ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Orders changes the way the database orders (time, uuid) pairs, which compares uuids as unsigned bytes
+     * rather than as the signed longs of {@link UUID#compareTo}.
+     */
+    private static int compareChanges(LocalDateTime changedAt, UUID uuid, LocalDateTime otherChangedAt,
+                                      UUID otherUuid) {
+        int byTime = changedAt.compareTo(otherChangedAt);
+        if (byTime != 0) {
+            return byTime;
+        }
+
+        int byMostSignificantBits = Long.compareUnsigned(uuid.getMostSignificantBits(),
+                otherUuid.getMostSignificantBits());
+        return byMostSignificantBits != 0 ? byMostSignificantBits :
+                Long.compareUnsigned(uuid.getLeastSignificantBits(), otherUuid.getLeastSignificantBits());
+    }
+
+    private static void writeUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
     }
 }
\ No newline at end of file
@@ -16,9 +16,45 @@ import java.lang.annotation.Target;
 @Constraint(validatedBy = ValidNameValidator.class)
 public @interface ValidName {
 
-    String message() default "The field name shouldn't accept numbers";
+    /**
+     * Reported for a character outside of {@link #allowed()}. Left empty, it names the classes that are not
+     * allowed, such as "The field name shouldn't accept numbers".
+     */
+    String message() default "";
+
+    String lengthMessage() default "The field name must have at most {max} characters";
+
+    /**
+     * Character classes a name may contain. Any character outside of them is reported with {@link #message()}.
+     */
+    CharacterClass[] allowed() default {CharacterClass.LETTER, CharacterClass.WHITESPACE, CharacterClass.SYMBOL};
+
+    /**
+     * Maximum number of characters, matching the size of the users.name column.
+     */
+    int max() default 50;
 
     Class<?>[] groups() default {};
 
     Class<? extends Payload>[] payload() default {};
-}
\ No newline at end of file
+
+    enum CharacterClass {
+        LETTER("letters"),
+        DIGIT("numbers"),
+        WHITESPACE("whitespace"),
+        /**
+         * Anything that is neither a letter, a digit nor a whitespace, such as hyphens and apostrophes.
+         */
+        SYMBOL("symbols");
+
+        private final String description;
+
+        CharacterClass(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+}
@@ -1,13 +1,104 @@
 package com.josecarloscruz89.msusers.validation.constraint;
 
 import com.josecarloscruz89.msusers.validation.annotation.ValidName;
+import com.josecarloscruz89.msusers.validation.annotation.ValidName.CharacterClass;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Checks names with a single scan over their characters, so no pattern or matcher is allocated per call.
+ */
 public class ValidNameValidator implements ConstraintValidator<ValidName, String> {
 
+    private boolean letterAllowed;
+
+    private boolean digitAllowed;
+
+    private boolean whitespaceAllowed;
+
+    private boolean symbolAllowed;
+
+    private int max;
+
+    private String message;
+
+    private String lengthMessage;
+
+    @Override
+    public void initialize(ValidName validName) {
+        EnumSet<CharacterClass> allowed = EnumSet.noneOf(CharacterClass.class);
+        allowed.addAll(List.of(validName.allowed()));
+
+        this.letterAllowed = allowed.contains(CharacterClass.LETTER);
+        this.digitAllowed = allowed.contains(CharacterClass.DIGIT);
+        this.whitespaceAllowed = allowed.contains(CharacterClass.WHITESPACE);
+        this.symbolAllowed = allowed.contains(CharacterClass.SYMBOL);
+        this.max = validName.max();
+        this.message = validName.message().isEmpty() ? disallowedMessage(allowed) : validName.message();
+        this.lengthMessage = validName.lengthMessage();
+    }
+
     @Override
     public boolean isValid(String fieldName, ConstraintValidatorContext constraintValidatorContext) {
-        return fieldName == null || !fieldName.matches(".*[0-9].*");
+        if (fieldName == null) {
+            return true;
+        }
+
+        int length = fieldName.length();
+        int codePoints = 0;
+        int index = 0;
+
+        while (index < length) {
+            int codePoint = fieldName.codePointAt(index);
+            if (!isAllowed(codePoint)) {
+                return reject(constraintValidatorContext, message);
+            }
+            index += Character.charCount(codePoint);
+            codePoints++;
+        }
+
+        if (codePoints > max) {
+            return reject(constraintValidatorContext, lengthMessage);
+        }
+
+        return true;
+    }
+
+    private static boolean reject(ConstraintValidatorContext constraintValidatorContext, String message) {
+        constraintValidatorContext.disableDefaultConstraintViolation();
+        constraintValidatorContext.buildConstraintViolationWithTemplate(message)
+                .addConstraintViolation();
+        return false;
+    }
+
+    /**
+     * Names the classes left out of allowed, as in "The field name shouldn't accept numbers or symbols".
+     */
+    private static String disallowedMessage(EnumSet<CharacterClass> allowed) {
+        List<String> disallowed = EnumSet.complementOf(allowed).stream()
+                .map(CharacterClass::getDescription)
+                .toList();
+
+        if (disallowed.size() <= 1) {
+            return "The field name shouldn't accept " + String.join("", disallowed);
+        }
+        return "The field name shouldn't accept " + String.join(", ", disallowed.subList(0, disallowed.size() - 1)) +
+                " or " + disallowed.get(disallowed.size() - 1);
+    }
+
+    private boolean isAllowed(int codePoint) {
+        if (Character.isLetter(codePoint)) {
+            return letterAllowed;
+        }
+        if (Character.isDigit(codePoint)) {
+            return digitAllowed;
+        }
+        if (Character.isWhitespace(codePoint) || Character.isSpaceChar(codePoint)) {
+            return whitespaceAllowed;
+        }
+        return symbolAllowed;
     }
-}
\ No newline at end of file
+}
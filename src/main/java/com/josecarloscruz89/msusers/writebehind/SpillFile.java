@@ -0,0 +1,321 @@
+package com.josecarloscruz89.msusers.writebehind;
+
+import com.josecarloscruz89.msusers.model.entity.UserEntity;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Journal of the users accepted by the write-behind queue, one line per user: uuid, age, creation time and the
+ * Base64 encoded name, separated by tabs, with {@value #NULL} for null values.
+ * <p>
+ * Entries are numbered in append order and written to segments of segment-entries entries each, named after the
+ * journal with the segment number as extension. A segment is deleted as soon as every entry in it is released,
+ * so the journal only holds users still waiting to be inserted, whatever the load. Appends only write: a
+ * {@link #sync(long)} forces every entry appended before it started, so concurrent appends share one force.
+ */
+class SpillFile implements Closeable {
+
+    private static final String NULL = "~";
+
+    private final Path path;
+
+    private final int segmentEntries;
+
+    private final boolean sync;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private final Map<Long, Segment> segments = new HashMap<>();
+
+    private final List<Path> staleSegments;
+
+    private long nextSequence;
+
+    private long synced;
+
+    SpillFile(Path path, int segmentEntries, boolean sync) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        this.path = path;
+        this.segmentEntries = segmentEntries;
+        this.sync = sync;
+        this.staleSegments = staleSegments(directory);
+
+        long lastSegment = staleSegments.stream()
+                .mapToLong(this::segmentNumber)
+                .max()
+                .orElse(-1);
+        this.nextSequence = (lastSegment + 1) * segmentEntries;
+        this.synced = nextSequence;
+    }
+
+    /**
+     * Writes the user to the current segment and returns its sequence number, for {@link #sync(long)} and
+     * {@link #release(List)}.
+     */
+    long append(UserEntity userEntity) throws IOException {
+        String name = userEntity.getName() == null ? NULL :
+                Base64.getUrlEncoder().encodeToString(userEntity.getName().getBytes(StandardCharsets.UTF_8));
+        String age = userEntity.getAge() == null ? NULL : userEntity.getAge().toString();
+        String line = userEntity.getUuid() + "\t" + age + "\t" + userEntity.getCreatedAt() + "\t" + name + "\n";
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+
+        lock.lock();
+        try {
+            long sequence = nextSequence;
+            long number = sequence / segmentEntries;
+            Segment segment = segments.get(number);
+            if (segment == null) {
+                segment = new Segment(FileChannel.open(segmentPath(number), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE));
+                segments.put(number, segment);
+            }
+
+            try {
+                long position = segment.size;
+                while (buffer.hasRemaining()) {
+                    position += segment.channel.write(buffer, position);
+                }
+                segment.size = position;
+            } catch (IOException e) {
+                segment.channel.truncate(segment.size);
+                throw e;
+            }
+
+            segment.pending++;
+            nextSequence++;
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns once the entry is on disk. The caller forces every entry appended so far, including the ones of
+     * the callers waiting behind it, which then return without forcing again.
+     */
+    void sync(long sequence) throws IOException {
+        if (!sync) {
+            return;
+        }
+
+        syncLock.lock();
+        try {
+            if (sequence < synced) {
+                return;
+            }
+
+            long target;
+            List<Segment> unsynced = new ArrayList<>();
+            lock.lock();
+            try {
+                target = nextSequence;
+                for (long number = synced / segmentEntries; number <= (target - 1) / segmentEntries; number++) {
+                    Segment segment = segments.get(number);
+                    if (segment != null) {
+                        unsynced.add(segment);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            boolean created = false;
+            for (Segment segment : unsynced) {
+                try {
+                    segment.channel.force(false);
+                } catch (ClosedChannelException e) {
+                    // Deleted meanwhile, once every user in it was inserted
+                }
+                created |= !segment.linked;
+                segment.linked = true;
+            }
+            if (created) {
+                forceDirectory();
+            }
+
+            synced = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Marks the entries as inserted, deleting the segments left without any waiting entry.
+     */
+    void release(List<Long> sequences) throws IOException {
+        lock.lock();
+        try {
+            for (long sequence : sequences) {
+                long number = sequence / segmentEntries;
+                Segment segment = segments.get(number);
+                if (--segment.pending == 0) {
+                    segments.remove(number);
+                    segment.channel.close();
+                    Files.delete(segmentPath(number));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands the users left by the previous run to the inserter, batchSize at a time, reading one line at a time,
+     * and deletes each segment once it has been inserted. A torn last line, left by a crash in the middle of an
+     * append, belongs to a user that was never accepted and is dropped.
+     */
+    void replay(int batchSize, Consumer<List<UserEntity>> inserter) throws IOException {
+        for (Path segment : staleSegments) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                channel.truncate(completeLength(channel));
+            }
+
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                List<UserEntity> batch = new ArrayList<>(batchSize);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    batch.add(parse(line));
+                    if (batch.size() == batchSize) {
+                        inserter.accept(batch);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    inserter.accept(batch);
+                }
+            }
+            Files.delete(segment);
+        }
+        staleSegments.clear();
+    }
+
+    /**
+     * Closes the segments still holding waiting users, which are replayed on the next start.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            for (Segment segment : segments.values()) {
+                if (sync) {
+                    segment.channel.force(false);
+                }
+                segment.channel.close();
+            }
+            segments.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Path segmentPath(long number) {
+        return path.resolveSibling(path.getFileName() + "." + number);
+    }
+
+    /**
+     * Lists the segments of a previous run in append order.
+     */
+    private List<Path> staleSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> segmentNumber(file) >= 0)
+                    .sorted(Comparator.comparingLong(this::segmentNumber))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private long segmentNumber(Path file) {
+        String prefix = path.getFileName() + ".";
+        String fileName = file.getFileName().toString();
+        if (!fileName.startsWith(prefix) || fileName.length() == prefix.length()) {
+            return -1;
+        }
+
+        String number = fileName.substring(prefix.length());
+        return number.chars().allMatch(Character::isDigit) ? Long.parseLong(number) : -1;
+    }
+
+    private void forceDirectory() throws IOException {
+        try (FileChannel directory = FileChannel.open(path.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        }
+    }
+
+    private static long completeLength(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long end = channel.size();
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) >= 0) {
+                // Reads the whole window
+            }
+
+            for (int index = buffer.position() - 1; index >= 0; index--) {
+                if (buffer.get(index) == '\n') {
+                    return start + index + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    private static UserEntity parse(String line) {
+        String[] fields = line.split("\t", -1);
+        LocalDateTime createdAt = LocalDateTime.parse(fields[2]);
+
+        return UserEntity.builder()
+                .uuid(UUID.fromString(fields[0]))
+                .age(NULL.equals(fields[1]) ? null : Integer.valueOf(fields[1]))
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .name(NULL.equals(fields[3]) ? null :
+                        new String(Base64.getUrlDecoder().decode(fields[3]), StandardCharsets.UTF_8))
+                .build();
+    }
+
+    /**
+     * One segment file. Its size and waiting entries are guarded by the journal lock, and whether its directory
+     * entry is on disk by the sync lock.
+     */
+    private static final class Segment {
+
+        private final FileChannel channel;
+
+        private long size;
+
+        private int pending;
+
+        private boolean linked;
+
+        private Segment(FileChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
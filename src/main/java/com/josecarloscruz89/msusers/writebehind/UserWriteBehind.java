@@ -0,0 +1,388 @@
+package com.josecarloscruz89.msusers.writebehind;
+
+import com.josecarloscruz89.msusers.cache.UserCache;
+import com.josecarloscruz89.msusers.exception.ServiceUnavailableException;
+import com.josecarloscruz89.msusers.model.entity.UserEntity;
+import com.josecarloscruz89.msusers.outbox.UserOutbox;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Opt-in write-behind mode of user creation, enabled with users.write-behind.enabled. Created users are appended
+ * to a local spill file and queued, and the request returns without waiting for the database. A single flusher
+ * thread inserts the queue in batches of up to batch-size users per transaction, waiting at most flush-interval
+ * for a batch to fill. Once queue-capacity users wait, new users are rejected with 503 after offer-timeout
+ * instead of growing the queue. Requests appending at the same time share one force of the spill file, and only
+ * the append itself is serialized.
+ * <p>
+ * The request is validated like any other before the user is queued, but the user can only be read once its
+ * batch is inserted: until then a read of it answers 404, even right after its creation returned 201. Its id is
+ * marked as written anyway, so once inserted it is read from the primary for the read-your-writes window.
+ * <p>
+ * The spill file drops each batch once it is inserted and is replayed on startup, so users accepted before a
+ * crash are still inserted. A replayed user that already has an event was inserted before the crash, and maybe
+ * deleted since, so it is skipped.
+ */
+@Slf4j
+@Component
+public class UserWriteBehind implements SmartLifecycle {
+
+    static final String INSERT_USER = "INSERT INTO users (uuid, name, age, version, updated_at, created_at) " +
+            "VALUES (?, ?, ?, 0, ?, ?)";
+
+    static final String INSERT_REPLAYED_USER = "INSERT INTO users (uuid, name, age, version, updated_at, " +
+            "created_at) SELECT ?, ?, ?, 0, ?, ? WHERE NOT EXISTS (SELECT 1 FROM user_events WHERE user_uuid = ?)";
+
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(1);
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final WriteBehindProperties properties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final UserCache userCache;
+
+    private final UserOutbox userOutbox;
+
+    private final BlockingQueue<SpilledUser> queue;
+
+    private final Semaphore capacity;
+
+    private final Timer flushTimer;
+
+    private final DistributionSummary batchSizeSummary;
+
+    private final Counter rejectedCounter;
+
+    private final Counter droppedCounter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private SpillFile spillFile;
+
+    private Thread flusher;
+
+    private volatile boolean running;
+
+    public UserWriteBehind(WriteBehindProperties properties, JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate, UserCache userCache, UserOutbox userOutbox,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userCache = userCache;
+        this.userOutbox = userOutbox;
+        this.queue = new LinkedBlockingQueue<>();
+        this.capacity = new Semaphore(properties.queueCapacity());
+
+        Gauge.builder("users.write_behind.queue.size", queue, BlockingQueue::size)
+                .description("Created users waiting to be inserted")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("users.write_behind.flush")
+                .description("Time to insert a batch of queued users")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("users.write_behind.batch.size")
+                .description("Users inserted per batch")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("users.write_behind.rejected")
+                .description("Created users rejected because the queue was full")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("users.write_behind.dropped")
+                .description("Queued users the database refused to insert")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * Accepts the user once it is on disk and queued. Room is reserved before the append, so a rejected user is
+     * never written and never replayed.
+     */
+    public void enqueue(UserEntity userEntity) {
+        if (!running) {
+            throw new ServiceUnavailableException("The users are not being accepted");
+        }
+
+        boolean reserved;
+        try {
+            reserved = capacity.tryAcquire(properties.offerTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reserved = false;
+        }
+        if (!reserved) {
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException("Too many users waiting to be created, retry later");
+        }
+
+        long sequence;
+        lock.lock();
+        try {
+            if (!running) {
+                capacity.release();
+                throw new ServiceUnavailableException("The users are not being accepted");
+            }
+            sequence = spillFile.append(userEntity);
+        } catch (IOException e) {
+            capacity.release();
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            spillFile.sync(sequence);
+        } catch (IOException e) {
+            capacity.release();
+            throw new UncheckedIOException(e);
+        }
+        queue.add(new SpilledUser(sequence, userEntity));
+    }
+
+    /**
+     * Starts before and stops after the web server, so no user is accepted once the last flush has started.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        try {
+            spillFile = new SpillFile(properties.spillFile(), properties.batchSize(), properties.syncSpillFile());
+            spillFile.replay(properties.batchSize(), this::replay);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        running = true;
+        flusher = Thread.ofPlatform()
+                .name("users-write-behind")
+                .start(this::flushQueue);
+    }
+
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            running = false;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            flusher.join(SHUTDOWN_TIMEOUT);
+            if (flusher.isAlive()) {
+                log.warn("{} queued users were not inserted before shutdown, they are replayed on the next start",
+                        queue.size());
+                flusher.interrupt();
+            }
+            spillFile.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void flushQueue() {
+        List<SpilledUser> batch = new ArrayList<>(properties.batchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<SpilledUser> batch) throws InterruptedException {
+        SpilledUser first = queue.poll(properties.flushInterval().toNanos(), TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+
+        batch.add(first);
+        long deadline = System.nanoTime() + properties.flushInterval().toNanos();
+        while (batch.size() < properties.batchSize()) {
+            queue.drainTo(batch, properties.batchSize() - batch.size());
+
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() == properties.batchSize() || remaining <= 0) {
+                return;
+            }
+
+            SpilledUser next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Retries until the batch is inserted. While shutting down a failed batch is left in the spill file instead,
+     * to be replayed on the next start.
+     */
+    private void flush(List<SpilledUser> batch) {
+        List<UserEntity> userEntities = batch.stream()
+                .map(SpilledUser::userEntity)
+                .toList();
+        while (true) {
+            try {
+                flushTimer.record(() -> insert(userEntities));
+                break;
+            } catch (RuntimeException e) {
+                log.error("Failed to insert {} queued users, retrying", batch.size(), e);
+                if (!running) {
+                    return;
+                }
+
+                try {
+                    Thread.sleep(RETRY_BACKOFF);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        batchSizeSummary.record(batch.size());
+        userEntities.forEach(userEntity -> userCache.invalidate(userEntity.getUuid()));
+
+        try {
+            spillFile.release(batch.stream()
+                    .map(SpilledUser::sequence)
+                    .toList());
+        } catch (IOException e) {
+            log.error("Failed to drop an inserted batch from the write-behind spill file", e);
+        }
+        capacity.release(batch.size());
+    }
+
+    /**
+     * Inserts the batch and appends its changes to the outbox in one transaction. When the database refuses it,
+     * the users are inserted one by one and the ones it refuses again are dropped, so one invalid user cannot
+     * block the whole queue.
+     */
+    private void insert(List<UserEntity> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_USER, batch, batch.size(), UserWriteBehind::setValues);
+                userOutbox.created(batch);
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.warn("The database refused a batch of {} users, inserting them one by one", batch.size(), e);
+            batch.forEach(this::insertOne);
+        }
+    }
+
+    /**
+     * Inserts a batch of users left in the spill file by the previous run, appending events only for the users
+     * actually inserted. The users are inserted one statement at a time, since a batch may not report which of
+     * its statements were skipped.
+     */
+    private void replay(List<UserEntity> batch) {
+        List<UserEntity> inserted = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (UserEntity userEntity : batch) {
+                    if (jdbcTemplate.update(INSERT_REPLAYED_USER,
+                            statement -> setReplayedValues(statement, userEntity)) == 1) {
+                        inserted.add(userEntity);
+                    }
+                }
+                if (!inserted.isEmpty()) {
+                    userOutbox.created(inserted);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.warn("The database refused a batch of {} replayed users, inserting them one by one", batch.size(),
+                    e);
+            batch.forEach(this::insertOne);
+            return;
+        }
+
+        log.info("Replayed {} users from the write-behind spill file, {} of them were already inserted",
+                batch.size(), batch.size() - inserted.size());
+    }
+
+    /**
+     * Inserts the user unless it already has an event, which also covers a batch retried after its commit
+     * succeeded without the flusher hearing back.
+     */
+    private void insertOne(UserEntity userEntity) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (jdbcTemplate.update(INSERT_REPLAYED_USER,
+                        statement -> setReplayedValues(statement, userEntity)) == 1) {
+                    userOutbox.created(List.of(userEntity));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.error("Dropping user {} refused by the database", userEntity.getUuid(), e);
+            droppedCounter.increment();
+        }
+    }
+
+    private static void setReplayedValues(PreparedStatement statement, UserEntity userEntity)
+            throws SQLException {
+        setValues(statement, userEntity);
+        statement.setObject(6, userEntity.getUuid());
+    }
+
+    private static void setValues(PreparedStatement statement, UserEntity userEntity) throws SQLException {
+        statement.setObject(1, userEntity.getUuid());
+        statement.setString(2, userEntity.getName());
+        statement.setObject(3, userEntity.getAge(), Types.INTEGER);
+        statement.setObject(4, userEntity.getUpdatedAt());
+        statement.setObject(5, userEntity.getCreatedAt());
+    }
+
+    private record SpilledUser(long sequence, UserEntity userEntity) {
+    }
+}
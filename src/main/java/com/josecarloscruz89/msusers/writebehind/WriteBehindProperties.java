@@ -0,0 +1,33 @@
+package com.josecarloscruz89.msusers.writebehind;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of the opt-in write-behind mode of user creation.
+ *
+ * @param enabled       whether created users are queued and inserted in the background instead of on the request
+ * @param queueCapacity users accepted but not inserted yet, before new users are rejected
+ * @param batchSize     maximum users inserted per transaction
+ * @param flushInterval how long a batch waits for more users before it is inserted
+ * @param offerTimeout  how long a request waits for room in a full queue before it is rejected
+ * @param spillFile     journal every accepted user is appended to until it is inserted, replayed on startup; it is
+ *                      written to segments of batch-size users named after it, with the segment number as extension
+ * @param syncSpillFile whether each append is forced to disk before the user is accepted
+ */
+@Validated
+@ConfigurationProperties(prefix = "users.write-behind")
+public record WriteBehindProperties(boolean enabled,
+                                    @DefaultValue("10000") @Min(1) int queueCapacity,
+                                    @DefaultValue("500") @Min(1) int batchSize,
+                                    @DefaultValue("100ms") @NotNull Duration flushInterval,
+                                    @DefaultValue("50ms") @NotNull Duration offerTimeout,
+                                    @DefaultValue("data/users-write-behind.log") @NotNull Path spillFile,
+                                    @DefaultValue("true") boolean syncSpillFile) {
+}
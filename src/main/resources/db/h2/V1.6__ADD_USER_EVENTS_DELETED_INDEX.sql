@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_user_events_deleted_occurred_at_uuid ON user_events (occurred_at, user_uuid);
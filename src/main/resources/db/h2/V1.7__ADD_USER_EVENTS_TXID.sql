@@ -0,0 +1,3 @@
+-- H2 has no transaction ids, so its feed is read in id order
+ALTER TABLE user_events ADD COLUMN IF NOT EXISTS txid BIGINT NOT NULL DEFAULT 0;
+CREATE INDEX IF NOT EXISTS idx_user_events_txid_id ON user_events (txid, id);
@@ -0,0 +1 @@
+ALTER TABLE users ALTER COLUMN uuid TYPE uuid USING uuid::uuid;
@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS idx_users_age ON users (age);
+CREATE INDEX IF NOT EXISTS idx_users_created_at_uuid ON users (created_at, uuid);
+CREATE INDEX IF NOT EXISTS idx_users_updated_at_uuid ON users (updated_at, uuid);
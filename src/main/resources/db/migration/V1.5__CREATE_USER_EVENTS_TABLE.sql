@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS user_events (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_uuid      UUID               NOT NULL,
+    type           VARCHAR(10)        NOT NULL,
+    name           VARCHAR(50),
+    age            INTEGER,
+    version        BIGINT,
+    occurred_at    TIMESTAMP          NOT NULL
+);
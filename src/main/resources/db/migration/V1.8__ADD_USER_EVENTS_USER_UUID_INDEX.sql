@@ -0,0 +1,2 @@
+-- Looked up by the write-behind replay, which skips the users that already have an event
+CREATE INDEX IF NOT EXISTS idx_user_events_user_uuid ON user_events (user_uuid);
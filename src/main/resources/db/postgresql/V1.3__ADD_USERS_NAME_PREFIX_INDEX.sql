@@ -0,0 +1,2 @@
+-- text_pattern_ops lets LIKE 'prefix%' use the index whatever the database collation is
+CREATE INDEX IF NOT EXISTS idx_users_lower_name ON users (lower(name) text_pattern_ops);
@@ -0,0 +1,3 @@
+-- Only deletions are read by time, so the index leaves the other events out
+CREATE INDEX IF NOT EXISTS idx_user_events_deleted_occurred_at_uuid ON user_events (occurred_at, user_uuid)
+    WHERE type = 'DELETED';
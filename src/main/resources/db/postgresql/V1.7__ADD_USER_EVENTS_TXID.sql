@@ -0,0 +1,4 @@
+-- The transaction that appended each event. The feed is read in (txid, id) order and only up to the oldest
+-- transaction still running, so an event committing late can never fall behind a consumer's cursor
+ALTER TABLE user_events ADD COLUMN IF NOT EXISTS txid BIGINT NOT NULL DEFAULT txid_current();
+CREATE INDEX IF NOT EXISTS idx_user_events_txid_id ON user_events (txid, id);
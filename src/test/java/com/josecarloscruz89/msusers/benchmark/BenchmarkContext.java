@@ -0,0 +1,23 @@
+package com.josecarloscruz89.msusers.benchmark;
+
+import com.josecarloscruz89.msusers.MsUsersApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.function.Consumer;
+
+public class BenchmarkContext {
+
+    public static ConfigurableApplicationContext start(String... args) {
+        return start(application -> {
+        }, args);
+    }
+
+    public static ConfigurableApplicationContext start(Consumer<SpringApplication> customizer, String... args) {
+        SpringApplication application = new SpringApplication(MsUsersApplication.class);
+        application.setAdditionalProfiles("benchmark");
+        customizer.accept(application);
+
+        return application.run(args);
+    }
+}
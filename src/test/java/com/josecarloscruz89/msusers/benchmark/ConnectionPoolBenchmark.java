@@ -0,0 +1,80 @@
+package com.josecarloscruz89.msusers.benchmark;
+
+import com.josecarloscruz89.msusers.model.dto.UserRequest;
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import com.josecarloscruz89.msusers.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Uncached {@link UserService#getUserById} with the driver's server-side prepared statements disabled (threshold 0),
+ * enabled on the first execution (1) and on the driver default (5). The driver settings only reach Postgres, so run
+ * it with {@code -jvmArgs "-Dspring.datasource.url=jdbc:postgresql://localhost:5455/users
+ * -Dspring.datasource.username=admin -Dspring.datasource.password=admin"}; on H2 the parameters make no difference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+
+    private static final int USERS = 1000;
+
+    @Param({"0", "1", "5"})
+    private String prepareThreshold;
+
+    @Param({"0", "256"})
+    private String preparedStatementCacheQueries;
+
+    private ConfigurableApplicationContext context;
+
+    private UserService userService;
+
+    private List<UUID> userIds;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("--users.cache.maximum-size=0",
+                "--users.datasource.pool.prepare-threshold=" + prepareThreshold,
+                "--users.datasource.pool.prepared-statement-cache-queries=" + preparedStatementCacheQueries);
+        userService = context.getBean(UserService.class);
+
+        List<UserRequest> userRequests = IntStream.range(0, USERS)
+                .mapToObj(index -> UserRequest.builder()
+                        .name("User " + index)
+                        .age(index % 100)
+                        .build())
+                .toList();
+
+        userIds = userService.createUsers(userRequests);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponse getUserById() {
+        return userService.getUserById(userIds.get(ThreadLocalRandom.current().nextInt(USERS)));
+    }
+}
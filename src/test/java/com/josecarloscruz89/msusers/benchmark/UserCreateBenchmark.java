@@ -0,0 +1,82 @@
+package com.josecarloscruz89.msusers.benchmark;
+
+import com.josecarloscruz89.msusers.model.dto.UserRequest;
+import com.josecarloscruz89.msusers.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Write paths of {@link UserService}, reported per created user so the single-row and the batch paths compare
+ * directly, with and without the driver rewriting batched inserts into multi-row inserts. H2 runs in-process, so
+ * the round trips saved by batching are cheaper there than against Postgres, and the rewrite is a Postgres driver
+ * setting that H2 ignores. To run against Postgres, e.g. the one of docker-compose, set SPRING_DATASOURCE_URL to
+ * jdbc:postgresql://localhost:5455/users along with SPRING_DATASOURCE_USERNAME and SPRING_DATASOURCE_PASSWORD.
+ * benchmarks/user-create-postgres.json holds such a run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserCreateBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Param({"true", "false"})
+    private boolean reWriteBatchedInserts;
+
+    private ConfigurableApplicationContext context;
+
+    private UserService userService;
+
+    private List<UserRequest> userRequests;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("--users.datasource.pool.re-write-batched-inserts=" + reWriteBatchedInserts);
+        userService = context.getBean(UserService.class);
+
+        userRequests = IntStream.range(0, BATCH_SIZE)
+                .mapToObj(index -> UserRequest.builder()
+                        .name("User " + index)
+                        .age(index % 100)
+                        .build())
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void createUserOneByOne(Blackhole blackhole) {
+        userRequests.forEach(userRequest -> blackhole.consume(userService.createUser(userRequest)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<UUID> createUsersInBatch() {
+        return userService.createUsers(userRequests);
+    }
+}
@@ -0,0 +1,106 @@
+package com.josecarloscruz89.msusers.benchmark;
+
+import com.josecarloscruz89.msusers.model.entity.UuidV7Generator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Primary key layouts of the users table: random UUID strings in a VARCHAR(36) column (before) against
+ * time-ordered UUIDs in a native uuid column (after), on a table preloaded with {@value #USERS} rows.
+ * The index size is printed on tear down when the benchmark runs against Postgres, e.g. with
+ * {@code -jvmArgs "-Dspring.datasource.url=jdbc:postgresql://localhost:5455/users -Dspring.datasource.username=admin
+ * -Dspring.datasource.password=admin"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserIdBenchmark {
+
+    private static final int USERS = 100_000;
+
+    private static final String INSERT = "INSERT INTO user_id_benchmark (uuid, name) VALUES (?, ?)";
+
+    private static final String SELECT_BY_ID = "SELECT name FROM user_id_benchmark WHERE uuid = ?";
+
+    @Param({"varchar", "uuid"})
+    private String idType;
+
+    private ConfigurableApplicationContext context;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private Supplier<Object> idGenerator;
+
+    private List<Object> userIds;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        boolean nativeUuid = "uuid".equals(idType);
+        idGenerator = nativeUuid ? UuidV7Generator::next : () -> UUID.randomUUID().toString();
+
+        jdbcTemplate.execute("DROP TABLE IF EXISTS user_id_benchmark");
+        jdbcTemplate.execute("CREATE TABLE user_id_benchmark (uuid " + (nativeUuid ? "UUID" : "VARCHAR(36)") +
+                " PRIMARY KEY, name VARCHAR(50) NOT NULL)");
+
+        userIds = Stream.generate(idGenerator)
+                .limit(USERS)
+                .toList();
+
+        jdbcTemplate.batchUpdate(INSERT, userIds, 1000, (preparedStatement, userId) -> {
+            preparedStatement.setObject(1, userId);
+            preparedStatement.setString(2, "User");
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+
+        if ("PostgreSQL".equals(database)) {
+            Long indexSize = jdbcTemplate.queryForObject("SELECT pg_relation_size('user_id_benchmark_pkey')",
+                    Long.class);
+            System.out.printf("%n%s primary key index: %d bytes%n", idType, indexSize);
+        }
+
+        jdbcTemplate.execute("DROP TABLE user_id_benchmark");
+        context.close();
+    }
+
+    @Benchmark
+    public int insert() {
+        return jdbcTemplate.update(INSERT, idGenerator.get(), "User");
+    }
+
+    @Benchmark
+    public String lookup() {
+        Object userId = userIds.get(ThreadLocalRandom.current().nextInt(USERS));
+        return jdbcTemplate.queryForObject(SELECT_BY_ID, String.class, userId);
+    }
+}
@@ -0,0 +1,72 @@
+package com.josecarloscruz89.msusers.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.josecarloscruz89.msusers.model.dto.UserRequest;
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserJsonBenchmark {
+
+    private static final int USERS = 100;
+
+    private static final TypeReference<List<UserRequest>> USER_REQUESTS = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<UserResponse> userResponses;
+
+    private byte[] userRequestsJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        userResponses = IntStream.range(0, USERS)
+                .mapToObj(index -> UserResponse.builder()
+                        .uuid(UUID.randomUUID())
+                        .name("User " + index)
+                        .age(index)
+                        .build())
+                .toList();
+
+        List<UserRequest> userRequests = IntStream.range(0, USERS)
+                .mapToObj(index -> UserRequest.builder()
+                        .name("User " + index)
+                        .age(index)
+                        .build())
+                .toList();
+
+        userRequestsJson = objectMapper.writeValueAsBytes(userRequests);
+    }
+
+    @Benchmark
+    public byte[] serializeUserResponses() throws IOException {
+        return objectMapper.writeValueAsBytes(userResponses);
+    }
+
+    @Benchmark
+    public List<UserRequest> deserializeUserRequests() throws IOException {
+        return objectMapper.readValue(userRequestsJson, USER_REQUESTS);
+    }
+}
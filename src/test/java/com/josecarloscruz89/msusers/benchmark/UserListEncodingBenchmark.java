@@ -0,0 +1,81 @@
+package com.josecarloscruz89.msusers.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.josecarloscruz89.msusers.controller.UserListWriter;
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import com.josecarloscruz89.msusers.model.entity.UuidV7Generator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes {@value #USERS} users the way {@code GET /users} streams them, in every supported encoding with and
+ * without gzip. The encoded size of each combination is printed on tear down.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserListEncodingBenchmark {
+
+    private static final int USERS = 10_000;
+
+    @Param({"application/json", "application/x-jackson-smile", "application/cbor",
+            "application/vnd.users.columnar+json"})
+    private String mediaType;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private final UserListWriter userListWriter = new UserListWriter(new ObjectMapper());
+
+    private MediaType encoding;
+
+    private List<UserResponse> userResponses;
+
+    private int encodedSize;
+
+    @Setup
+    public void setUp() {
+        encoding = MediaType.parseMediaType(mediaType);
+        userResponses = IntStream.range(0, USERS)
+                .mapToObj(index -> new UserResponse(UuidV7Generator.next(), "User " + index, index % 100))
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n%s gzip=%s: %d bytes%n", mediaType, gzip, encodedSize);
+    }
+
+    @Benchmark
+    public int writeUsers() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+        try (OutputStream outputStream = gzip ? new GZIPOutputStream(bytes) : bytes) {
+            userListWriter.write(encoding, outputStream, userResponses::forEach);
+        }
+
+        encodedSize = bytes.size();
+        return encodedSize;
+    }
+}
@@ -0,0 +1,58 @@
+package com.josecarloscruz89.msusers.benchmark;
+
+import com.josecarloscruz89.msusers.model.dto.UserRequest;
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import com.josecarloscruz89.msusers.model.entity.UserEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    private UserEntity userEntity;
+
+    private UserRequest userRequest;
+
+    @Setup
+    public void setUp() {
+        userEntity = UserEntity.builder()
+                .uuid(UUID.randomUUID())
+                .name("Jose")
+                .age(33)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+
+        userRequest = UserRequest.builder()
+                .name("Jose")
+                .age(33)
+                .build();
+    }
+
+    @Benchmark
+    public UserResponse userResponseValueOf() {
+        return UserResponse.valueOf(userEntity);
+    }
+
+    @Benchmark
+    public UserEntity userEntityValueOf() {
+        return UserEntity.valueOf(userRequest);
+    }
+}
@@ -0,0 +1,115 @@
+package com.josecarloscruz89.msusers.benchmark;
+
+import com.josecarloscruz89.msusers.model.dto.UserLookupResponse;
+import com.josecarloscruz89.msusers.model.dto.UserPageResponse;
+import com.josecarloscruz89.msusers.model.dto.UserRequest;
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import com.josecarloscruz89.msusers.model.dto.UserSearchRequest;
+import com.josecarloscruz89.msusers.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Read paths of {@link UserService} against an in-memory H2 database holding {@value #USERS} users.
+ * The cache size parameter compares lookups served by the user cache with lookups that always reach the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final int USERS = 1000;
+
+    private static final int LOOKUP_SIZE = 100;
+
+    @Param({"10000", "0"})
+    private String cacheSize;
+
+    private ConfigurableApplicationContext context;
+
+    private UserService userService;
+
+    private List<UUID> userIds;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("--users.cache.maximum-size=" + cacheSize);
+        userService = context.getBean(UserService.class);
+
+        List<UserRequest> userRequests = IntStream.range(0, USERS)
+                .mapToObj(index -> UserRequest.builder()
+                        .name("User " + index)
+                        .age(index % 100)
+                        .build())
+                .toList();
+
+        userIds = userService.createUsers(userRequests);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponse getUserById() {
+        return userService.getUserById(userIds.get(ThreadLocalRandom.current().nextInt(USERS)));
+    }
+
+    @Benchmark
+    public UserLookupResponse lookupUsers() {
+        int from = ThreadLocalRandom.current().nextInt(USERS - LOOKUP_SIZE);
+        return userService.lookupUsers(userIds.subList(from, from + LOOKUP_SIZE));
+    }
+
+    @Benchmark
+    public UserPageResponse getUsersPage() {
+        return userService.getUsersPage(null, 100);
+    }
+
+    /**
+     * The same users a client would otherwise filter out of {@link #streamAllUsers} itself: a name prefix and an
+     * age range, newest first, two pages deep.
+     */
+    @Benchmark
+    public UserPageResponse searchUsers() {
+        UserSearchRequest userSearchRequest = UserSearchRequest.builder()
+                .name("user 1")
+                .minAge(10)
+                .maxAge(50)
+                .direction("desc")
+                .limit(20)
+                .build();
+
+        UserPageResponse firstPage = userService.searchUsers(userSearchRequest);
+        userSearchRequest.setCursor(firstPage.getNextCursor());
+
+        return userService.searchUsers(userSearchRequest);
+    }
+
+    @Benchmark
+    public void streamAllUsers(Blackhole blackhole) {
+        userService.streamAllUsers(blackhole::consume);
+    }
+}
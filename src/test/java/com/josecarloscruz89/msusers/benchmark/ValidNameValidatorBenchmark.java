@@ -0,0 +1,60 @@
+package com.josecarloscruz89.msusers.benchmark;
+
+import com.josecarloscruz89.msusers.model.dto.UserRequest;
+import com.josecarloscruz89.msusers.validation.annotation.ValidName;
+import com.josecarloscruz89.msusers.validation.constraint.ValidNameValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidNameValidatorBenchmark {
+
+    @Param({"Jose Carlos da Cruz", "Jose Carlos da Cruz 89"})
+    private String name;
+
+    private final ValidNameValidator validNameValidator = new ValidNameValidator();
+
+    /**
+     * Takes the violations of invalid names and discards them, so only the validator itself is measured.
+     */
+    private final ConstraintValidatorContext constraintValidatorContext = (ConstraintValidatorContext)
+            Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ConstraintValidatorContext.class,
+                            ConstraintValidatorContext.ConstraintViolationBuilder.class},
+                    (proxy, method, args) -> method.getReturnType().isInstance(proxy) ? proxy : null);
+
+    @Setup
+    public void setUp() throws NoSuchFieldException {
+        validNameValidator.initialize(UserRequest.class.getDeclaredField("name").getAnnotation(ValidName.class));
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return validNameValidator.isValid(name, constraintValidatorContext);
+    }
+
+    /**
+     * The check the validator used to run, kept as the reference the scanning implementation is compared with.
+     */
+    @Benchmark
+    public boolean regexMatches() {
+        return !name.matches(".*[0-9].*");
+    }
+}
@@ -0,0 +1,130 @@
+package com.josecarloscruz89.msusers.benchmark;
+
+import com.josecarloscruz89.msusers.model.dto.UserRequest;
+import com.josecarloscruz89.msusers.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of GET /users/{userId} with {@value #CLIENTS} concurrent clients against a database that takes
+ * {@value #DB_LATENCY_MILLIS} ms per statement, comparing Tomcat's platform thread pool with the virtual thread
+ * mode. The connection pool is sized above the number of clients so threads, not connections, are the limit.
+ * <p>
+ * It needs a multi-core host: on a single core both modes were CPU bound at ~200-280 req/s, below the 800 req/s
+ * that 200 platform threads allow at this latency, so the thread limit never showed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(VirtualThreadsBenchmark.CLIENTS)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+public class VirtualThreadsBenchmark {
+
+    static final int CLIENTS = 400;
+
+    private static final long DB_LATENCY_MILLIS = 250;
+
+    @Param({"false", "true"})
+    private String virtualThreads;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private HttpRequest getUserByIdRequest;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(
+                application -> application.addInitializers(applicationContext -> applicationContext.getBeanFactory()
+                        .addBeanPostProcessor(new SlowDataSourcePostProcessor())),
+                "--spring.main.web-application-type=servlet",
+                "--server.port=0",
+                "--users.virtual-threads.enabled=" + virtualThreads,
+                "--users.cache.maximum-size=0",
+                "--users.datasource.pool.maximum-pool-size=" + (CLIENTS + 10));
+
+        UUID userId = context.getBean(UserService.class)
+                .createUser(UserRequest.builder().name("Jose").age(33).build());
+        String port = context.getEnvironment().getProperty("local.server.port");
+
+        httpClient = HttpClient.newHttpClient();
+        getUserByIdRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/" + userId))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getUserById() throws Exception {
+        return httpClient.send(getUserByIdRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Delays every statement preparation, standing in for the network and execution time of a remote database.
+     */
+    private static class SlowDataSourcePostProcessor implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return slow(super.getConnection());
+                }
+            };
+        }
+
+        private static Connection slow(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare")) {
+                            Thread.sleep(DB_LATENCY_MILLIS);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
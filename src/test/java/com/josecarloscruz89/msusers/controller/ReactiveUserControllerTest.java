@@ -0,0 +1,164 @@
+package com.josecarloscruz89.msusers.controller;
+
+import com.josecarloscruz89.msusers.exception.NotFoundException;
+import com.josecarloscruz89.msusers.model.dto.UserRequest;
+import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import com.josecarloscruz89.msusers.service.ReactiveUserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(controllers = ReactiveUserController.class)
+@Import(SimpleMeterRegistry.class)
+@ActiveProfiles("reactive")
+@DisplayName("Reactive User Controller Tests")
+public class ReactiveUserControllerTest {
+
+    @MockBean
+    private ReactiveUserService reactiveUserService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private static final String USERS_ENDPOINT = "/users";
+    private static final String USER_BY_ID_ENDPOINT = "/users/{userId}";
+
+    @Test
+    @DisplayName("Should stream all users as ndjson")
+    public void shouldStreamAllUsersAsNdjson() {
+        UserResponse user = new UserResponse(UUID.randomUUID(), "Jose", 33);
+        UserResponse anotherUser = new UserResponse(UUID.randomUUID(), "Maria", 28);
+
+        when(reactiveUserService.getAllUsers()).thenReturn(Flux.just(user, anotherUser));
+
+        webTestClient.get()
+                .uri(USERS_ENDPOINT)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(UserResponse.class)
+                .hasSize(2)
+                .contains(user, anotherUser);
+
+        verify(reactiveUserService, times(1)).getAllUsers();
+        verifyNoMoreInteractions(reactiveUserService);
+    }
+
+    @Test
+    @DisplayName("Should get an user by id")
+    public void shouldGetAnUserById() {
+        UUID uuid = UUID.randomUUID();
+        UserResponse user = new UserResponse(uuid, "Jose", 33);
+
+        when(reactiveUserService.getUserById(uuid)).thenReturn(Mono.just(user));
+
+        webTestClient.get()
+                .uri(USER_BY_ID_ENDPOINT, uuid)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.uuid").isEqualTo(uuid.toString())
+                .jsonPath("$.name").isEqualTo("Jose")
+                .jsonPath("$.age").isEqualTo(33);
+
+        verify(reactiveUserService, times(1)).getUserById(uuid);
+        verifyNoMoreInteractions(reactiveUserService);
+    }
+
+    @Test
+    @DisplayName("Should return not found when user does not exist")
+    public void shouldReturnNotFoundWhenUserDoesNotExist() {
+        UUID uuid = UUID.randomUUID();
+
+        when(reactiveUserService.getUserById(uuid)).thenReturn(Mono.error(new NotFoundException()));
+
+        webTestClient.get()
+                .uri(USER_BY_ID_ENDPOINT, uuid)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Should create an user")
+    public void shouldCreateAnUser() {
+        UUID uuid = UUID.randomUUID();
+
+        when(reactiveUserService.createUser(any(UserRequest.class))).thenReturn(Mono.just(uuid));
+
+        webTestClient.post()
+                .uri(USERS_ENDPOINT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("Jose", 33))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals("Location", uuid.toString());
+
+        verify(reactiveUserService, times(1)).createUser(any(UserRequest.class));
+        verifyNoMoreInteractions(reactiveUserService);
+    }
+
+    @Test
+    @DisplayName("Should update an user")
+    public void shouldUpdateAnUser() {
+        UUID uuid = UUID.randomUUID();
+
+        when(reactiveUserService.updateUser(any(UserRequest.class), eq(uuid))).thenReturn(Mono.empty());
+
+        webTestClient.put()
+                .uri(USER_BY_ID_ENDPOINT, uuid)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("Jose", 33))
+                .exchange()
+                .expectStatus().isNoContent();
+
+        verify(reactiveUserService, times(1)).updateUser(any(UserRequest.class), eq(uuid));
+        verifyNoMoreInteractions(reactiveUserService);
+    }
+
+    @Test
+    @DisplayName("Should not update an user with an invalid name")
+    public void shouldNotUpdateAnUserWithAnInvalidName() {
+        webTestClient.put()
+                .uri(USER_BY_ID_ENDPOINT, UUID.randomUUID().toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("Jose123", 33))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$[0].message").exists();
+
+        verifyNoInteractions(reactiveUserService);
+    }
+
+    @Test
+    @DisplayName("Should delete an user by id")
+    public void shouldDeleteAnUserById() {
+        UUID uuid = UUID.randomUUID();
+
+        when(reactiveUserService.deleteUserById(uuid)).thenReturn(Mono.empty());
+
+        webTestClient.delete()
+                .uri(USER_BY_ID_ENDPOINT, uuid)
+                .exchange()
+                .expectStatus().isNoContent();
+
+        verify(reactiveUserService, times(1)).deleteUserById(uuid);
+        verifyNoMoreInteractions(reactiveUserService);
+    }
+}
@@ -1,32 +1,63 @@
 package com.josecarloscruz89.msusers.controller;
 
+import com.josecarloscruz89.msusers.exception.BadRequestException;
 import com.josecarloscruz89.msusers.exception.NotFoundException;
+import com.josecarloscruz89.msusers.exception.PreconditionFailedException;
+import com.josecarloscruz89.msusers.exporter.UserExportFormat;
+import com.josecarloscruz89.msusers.importer.UserImportFormat;
+import com.josecarloscruz89.msusers.model.dto.ItemErrorResponse;
+import com.josecarloscruz89.msusers.model.dto.UserChangeResponse;
+import com.josecarloscruz89.msusers.model.dto.UserChangeType;
+import com.josecarloscruz89.msusers.model.dto.UserChangesResponse;
+import com.josecarloscruz89.msusers.model.dto.UserImportResponse;
+import com.josecarloscruz89.msusers.model.dto.UserLookupRequest;
+import com.josecarloscruz89.msusers.model.dto.UserLookupResponse;
+import com.josecarloscruz89.msusers.model.dto.UserPageResponse;
 import com.josecarloscruz89.msusers.model.dto.UserRequest;
 import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import com.josecarloscruz89.msusers.model.dto.UserSearchRequest;
+import com.josecarloscruz89.msusers.model.dto.UserSyncResponse;
 import com.josecarloscruz89.msusers.service.UserService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
-import java.util.ArrayList;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = UserController.class)
+@Import({SimpleMeterRegistry.class, UserListWriter.class})
 @ExtendWith(SpringExtension.class)
 @DisplayName("User Controller Tests")
 public class UserControllerTest {
@@ -42,11 +73,17 @@ public class UserControllerTest {
 
     private static final String USERS_ENDPOINT = "/users";
     private static final String USER_BY_ID_ENDPOINT = "/users/{userId}";
+    private static final String USERS_BATCH_ENDPOINT = "/users/batch";
+    private static final String USERS_LOOKUP_ENDPOINT = "/users/lookup";
+    private static final String USERS_SEARCH_ENDPOINT = "/users/search";
+    private static final String USERS_IMPORT_ENDPOINT = "/users/import";
+    private static final String USERS_EXPORT_ENDPOINT = "/users/export";
+    private static final String USERS_CHANGES_ENDPOINT = "/users/changes";
 
     @Test
     @DisplayName("Should delete an user by id")
     public void shouldDeleteAnUserById() throws Exception {
-        String uuid = UUID.randomUUID().toString();
+        UUID uuid = UUID.randomUUID();
 
         mockMvc.perform(delete(USER_BY_ID_ENDPOINT, uuid))
                 .andExpect(status().isNoContent());
@@ -55,6 +92,62 @@ public class UserControllerTest {
         verifyNoMoreInteractions(userService);
     }
 
+    @Test
+    @DisplayName("Should delete users by ids")
+    public void shouldDeleteUsersByIds() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        UUID anotherUuid = UUID.randomUUID();
+
+        mockMvc.perform(delete(USERS_ENDPOINT)
+                        .param("ids", uuid.toString(), anotherUuid.toString()))
+                .andExpect(status().isNoContent());
+
+        verify(userService, times(1)).deleteUsersByIds(List.of(uuid, anotherUuid));
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should look up users by ids")
+    public void shouldLookUpUsersByIds() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        UUID missingUuid = UUID.randomUUID();
+
+        UserLookupRequest userLookupRequest = UserLookupRequest.builder()
+                .ids(List.of(uuid, missingUuid))
+                .build();
+
+        UserLookupResponse userLookupResponse = UserLookupResponse.builder()
+                .users(List.of(new UserResponse(uuid, "Jose", 33)))
+                .missingIds(List.of(missingUuid))
+                .build();
+
+        when(userService.lookupUsers(List.of(uuid, missingUuid)))
+                .thenReturn(userLookupResponse);
+
+        mockMvc.perform(post(USERS_LOOKUP_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(userLookupRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(1)))
+                .andExpect(jsonPath("$.users[0].uuid", is(uuid.toString())))
+                .andExpect(jsonPath("$.missingIds[0]", is(missingUuid.toString())));
+
+        verify(userService, times(1)).lookupUsers(List.of(uuid, missingUuid));
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should not look up users without ids")
+    public void shouldNotLookUpUsersWithoutIds() throws Exception {
+        mockMvc.perform(post(USERS_LOOKUP_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].message", is("The field ids is required")));
+
+        verifyNoInteractions(userService);
+    }
+
     @Test
     @DisplayName("Should partial update an user")
     public void shouldPartialUpdateAnUser() throws Exception {
@@ -62,7 +155,7 @@ public class UserControllerTest {
                 .name("Jose")
                 .build();
 
-        String uuid = UUID.randomUUID().toString();
+        UUID uuid = UUID.randomUUID();
 
         byte[] body = objectMapper.writeValueAsBytes(userRequest);
 
@@ -71,7 +164,7 @@ public class UserControllerTest {
                         .content(body))
                 .andExpect(status().isNoContent());
 
-        verify(userService, times(1)).partialUpdateUser(userRequest, uuid);
+        verify(userService, times(1)).partialUpdateUser(userRequest, uuid, null);
         verifyNoMoreInteractions(userService);
     }
 
@@ -83,7 +176,7 @@ public class UserControllerTest {
                 .age(33)
                 .build();
 
-        String createdUuid = UUID.randomUUID().toString();
+        UUID createdUuid = UUID.randomUUID();
 
         when(userService.createUser(userRequest))
                 .thenReturn(createdUuid);
@@ -95,12 +188,251 @@ public class UserControllerTest {
                         .content(body))
                 .andExpect(status().isCreated())
                 .andExpect(header().exists("Location"))
-                .andExpect(header().string("Location", createdUuid));
+                .andExpect(header().string("Location", createdUuid.toString()));
 
         verify(userService, times(1)).createUser(userRequest);
         verifyNoMoreInteractions(userService);
     }
 
+    @Test
+    @DisplayName("Should not create a new user without an age")
+    public void shouldNotCreateANewUserWithoutAnAge() throws Exception {
+        UserRequest userRequest = UserRequest.builder()
+                .name("Jose")
+                .build();
+
+        byte[] body = objectMapper.writeValueAsBytes(userRequest);
+
+        mockMvc.perform(post(USERS_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].message", is("The field age is required")));
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should export users as an attached CSV file by default")
+    public void shouldExportUsersAsAnAttachedCsvFileByDefault() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(3);
+            outputStream.write("uuid,name,age,created_at,updated_at\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(userService).exportUsers(eq(UserExportFormat.CSV), isNull(), isNull(), any(OutputStream.class));
+
+        mockMvc.perform(get(USERS_EXPORT_ENDPOINT))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\""))
+                .andExpect(content().string("uuid,name,age,created_at,updated_at\n"));
+
+        verify(userService, times(1))
+                .exportUsers(eq(UserExportFormat.CSV), isNull(), isNull(), any(OutputStream.class));
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should export the users after an id as NDJSON when it is accepted")
+    public void shouldExportTheUsersAfterAnIdAsNdjson() throws Exception {
+        UUID after = UUID.randomUUID();
+
+        mockMvc.perform(get(USERS_EXPORT_ENDPOINT)
+                        .param("after", after.toString())
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\""));
+
+        verify(userService, times(1))
+                .exportUsers(eq(UserExportFormat.NDJSON), eq(after), isNull(), any(OutputStream.class));
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should sync the users changed since a time")
+    public void shouldSyncTheUsersChangedSinceATime() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        UUID deletedUuid = UUID.randomUUID();
+        LocalDateTime since = LocalDateTime.of(2024, 5, 1, 10, 30);
+
+        when(userService.syncUsers(since, null, 50))
+                .thenReturn(UserSyncResponse.builder()
+                        .users(List.of(new UserResponse(uuid, "Jose", 33)))
+                        .deletedIds(List.of(deletedUuid))
+                        .nextCursor("next")
+                        .build());
+
+        mockMvc.perform(get(USERS_ENDPOINT)
+                        .param("updatedSince", "2024-05-01T10:30:00")
+                        .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].uuid", is(uuid.toString())))
+                .andExpect(jsonPath("$.deletedIds", contains(deletedUuid.toString())))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+
+        verify(userService, times(1)).syncUsers(since, null, 50);
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should return bad request when the sync time is invalid")
+    public void shouldReturnBadRequestWhenTheSyncTimeIsInvalid() throws Exception {
+        mockMvc.perform(get(USERS_ENDPOINT)
+                        .param("updatedSince", "yesterday"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].message", is("The updatedSince is invalid")));
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should long-poll the user changes after the cursor")
+    public void shouldLongPollTheUserChangesAfterTheCursor() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        UserChangesResponse userChangesResponse = UserChangesResponse.builder()
+                .changes(List.of(UserChangeResponse.builder()
+                        .type(UserChangeType.UPDATED)
+                        .uuid(uuid)
+                        .name("Jose")
+                        .age(34)
+                        .version(1L)
+                        .build()))
+                .nextCursor("AAAAAAAAAAk")
+                .build();
+
+        when(userService.awaitChanges("AAAAAAAAAAc", 10))
+                .thenReturn(CompletableFuture.completedFuture(userChangesResponse));
+
+        MvcResult mvcResult = mockMvc.perform(get(USERS_CHANGES_ENDPOINT)
+                        .param("since", "AAAAAAAAAAc")
+                        .param("limit", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(1)))
+                .andExpect(jsonPath("$.changes[0].type", is("UPDATED")))
+                .andExpect(jsonPath("$.changes[0].uuid", is(uuid.toString())))
+                .andExpect(jsonPath("$.nextCursor", is("AAAAAAAAAAk")));
+
+        verify(userService, times(1)).awaitChanges("AAAAAAAAAAc", 10);
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should answer bad request before opening a change stream with an invalid cursor")
+    public void shouldAnswerBadRequestBeforeOpeningAChangeStreamWithAnInvalidCursor() throws Exception {
+        when(userService.getChanges("invalid", null))
+                .thenThrow(new BadRequestException("The cursor is invalid"));
+
+        mockMvc.perform(get(USERS_CHANGES_ENDPOINT)
+                        .header("Last-Event-ID", "invalid")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, times(1)).getChanges("invalid", null);
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should import users from a CSV body")
+    public void shouldImportUsersFromACsvBody() throws Exception {
+        UserImportResponse importResponse = UserImportResponse.builder()
+                .imported(1)
+                .rejected(1)
+                .rejects(List.of(new ItemErrorResponse(1, "The field age is required")))
+                .build();
+
+        when(userService.importUsers(any(InputStream.class), eq(UserImportFormat.CSV), eq(StandardCharsets.ISO_8859_1)))
+                .thenReturn(importResponse);
+
+        mockMvc.perform(post(USERS_IMPORT_ENDPOINT)
+                        .contentType("text/csv; charset=ISO-8859-1")
+                        .content("name,age\nJose,33\nMaria,\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.rejects[0].index", is(1)));
+
+        verify(userService, times(1))
+                .importUsers(any(InputStream.class), eq(UserImportFormat.CSV), eq(StandardCharsets.ISO_8859_1));
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should refuse to import a JSON array")
+    public void shouldRefuseToImportAJsonArray() throws Exception {
+        mockMvc.perform(post(USERS_IMPORT_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should create users in batch")
+    public void shouldCreateUsersInBatch() throws Exception {
+        List<UserRequest> userRequests = List.of(
+                UserRequest.builder().name("Jose").age(33).build(),
+                UserRequest.builder().name("Maria").age(30).build());
+
+        List<UUID> createdUuids = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+        when(userService.createUsers(userRequests))
+                .thenReturn(createdUuids);
+
+        byte[] body = objectMapper.writeValueAsBytes(userRequests);
+
+        mockMvc.perform(post(USERS_BATCH_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.uuids", hasSize(2)))
+                .andExpect(jsonPath("$.uuids[0]", is(createdUuids.get(0).toString())))
+                .andExpect(jsonPath("$.uuids[1]", is(createdUuids.get(1).toString())));
+
+        verify(userService, times(1)).createUsers(userRequests);
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should not create users in batch when some items are invalid")
+    public void shouldNotCreateUsersInBatchWhenSomeItemsAreInvalid() throws Exception {
+        List<UserRequest> userRequests = List.of(
+                UserRequest.builder().name("Jose").age(33).build(),
+                UserRequest.builder().name("Maria2").age(30).build(),
+                UserRequest.builder().age(30).build());
+
+        byte[] body = objectMapper.writeValueAsBytes(userRequests);
+
+        mockMvc.perform(post(USERS_BATCH_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].index", is(1)))
+                .andExpect(jsonPath("$[0].message", is("The field name shouldn't accept numbers")))
+                .andExpect(jsonPath("$[1].index", is(2)))
+                .andExpect(jsonPath("$[1].message", is("The field name is required")));
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should not create users in batch when the batch is empty")
+    public void shouldNotCreateUsersInBatchWhenBatchIsEmpty() throws Exception {
+        mockMvc.perform(post(USERS_BATCH_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+
     @Test
     @DisplayName("Should not update an user by id due to field name has numbers")
     public void shouldNotUpdateUserByIdDueToFieldNameHasNumbers() throws Exception {
@@ -109,7 +441,7 @@ public class UserControllerTest {
                 .age(33)
                 .build();
 
-        String uuid = UUID.randomUUID().toString();
+        UUID uuid = UUID.randomUUID();
 
         byte[] body = objectMapper.writeValueAsBytes(userRequest);
 
@@ -120,7 +452,29 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].message", is("The field name shouldn't accept numbers")));
 
-        verify(userService, times(0)).updateUser(userRequest, uuid);
+        verify(userService, times(0)).updateUser(userRequest, uuid, null);
+    }
+
+    @Test
+    @DisplayName("Should not update an user by id due to field name is too long")
+    public void shouldNotUpdateUserByIdDueToFieldNameIsTooLong() throws Exception {
+        UserRequest userRequest = UserRequest.builder()
+                .name("J".repeat(51))
+                .age(33)
+                .build();
+
+        UUID uuid = UUID.randomUUID();
+
+        byte[] body = objectMapper.writeValueAsBytes(userRequest);
+
+        mockMvc.perform(put(USER_BY_ID_ENDPOINT, uuid)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].message", is("The field name must have at most 50 characters")));
+
+        verify(userService, times(0)).updateUser(userRequest, uuid, null);
     }
 
     @Test
@@ -129,7 +483,7 @@ public class UserControllerTest {
         UserRequest userRequest = UserRequest.builder()
                 .build();
 
-        String uuid = UUID.randomUUID().toString();
+        UUID uuid = UUID.randomUUID();
 
         byte[] body = objectMapper.writeValueAsBytes(userRequest);
 
@@ -141,7 +495,7 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$[*].message", hasItem("The field name is required")))
                 .andExpect(jsonPath("$[*].message", hasItem("The field age is required")));
 
-        verify(userService, times(0)).updateUser(userRequest, uuid);
+        verify(userService, times(0)).updateUser(userRequest, uuid, null);
     }
 
     @Test
@@ -151,7 +505,7 @@ public class UserControllerTest {
                 .age(33)
                 .build();
 
-        String uuid = UUID.randomUUID().toString();
+        UUID uuid = UUID.randomUUID();
 
         byte[] body = objectMapper.writeValueAsBytes(userRequest);
 
@@ -162,7 +516,7 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].message", is("The field name is required")));
 
-        verify(userService, times(0)).updateUser(userRequest, uuid);
+        verify(userService, times(0)).updateUser(userRequest, uuid, null);
     }
 
     @Test
@@ -173,7 +527,7 @@ public class UserControllerTest {
                 .age(33)
                 .build();
 
-        String uuid = UUID.randomUUID().toString();
+        UUID uuid = UUID.randomUUID();
 
         byte[] body = objectMapper.writeValueAsBytes(userRequest);
 
@@ -182,29 +536,39 @@ public class UserControllerTest {
                         .content(body))
                 .andExpect(status().isNoContent());
 
-        verify(userService, times(1)).updateUser(userRequest, uuid);
+        verify(userService, times(1)).updateUser(userRequest, uuid, null);
         verifyNoMoreInteractions(userService);
     }
 
     @Test
     @DisplayName("Should return 404 NotFound when the id does not exist")
     public void shouldReturnNotFoundExceptionWhenIdDoesNotExist() throws Exception {
-        String invalidId = "abc123";
+        UUID unknownId = UUID.randomUUID();
 
-        when(userService.getUserById(invalidId))
+        when(userService.getUserById(unknownId))
                 .thenThrow(new NotFoundException());
 
-        mockMvc.perform(get(USER_BY_ID_ENDPOINT, invalidId))
+        mockMvc.perform(get(USER_BY_ID_ENDPOINT, unknownId))
                 .andExpect(status().isNotFound());
 
-        verify(userService, times(1)).getUserById(invalidId);
+        verify(userService, times(1)).getUserById(unknownId);
         verifyNoMoreInteractions(userService);
     }
 
+    @Test
+    @DisplayName("Should return 400 BadRequest when the id is not a valid uuid")
+    public void shouldReturnBadRequestWhenIdIsNotAValidUuid() throws Exception {
+        mockMvc.perform(get(USER_BY_ID_ENDPOINT, "abc123"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].message", is("The userId is invalid")));
+
+        verifyNoInteractions(userService);
+    }
+
     @Test
     @DisplayName("Should return an user by id")
     public void shouldReturnAnUserById() throws Exception {
-        String uuid = UUID.randomUUID().toString();
+        UUID uuid = UUID.randomUUID();
 
         UserResponse userResponse = UserResponse.builder()
                 .name("Jose")
@@ -217,7 +581,7 @@ public class UserControllerTest {
 
         mockMvc.perform(get(USER_BY_ID_ENDPOINT, uuid))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.uuid", is(uuid)))
+                .andExpect(jsonPath("$.uuid", is(uuid.toString())))
                 .andExpect(jsonPath("$.name", is("Jose")))
                 .andExpect(jsonPath("$.age", is(33)));
 
@@ -225,12 +589,88 @@ public class UserControllerTest {
         verifyNoMoreInteractions(userService);
     }
 
+    @Test
+    @DisplayName("Should return the user version as ETag and its last update as Last-Modified")
+    public void shouldReturnTheUserVersionAsETagAndItsLastUpdateAsLastModified() throws Exception {
+        UUID uuid = UUID.randomUUID();
+
+        UserResponse userResponse = UserResponse.builder()
+                .name("Jose")
+                .age(33)
+                .uuid(uuid)
+                .version(3L)
+                .updatedAt(LocalDateTime.now())
+                .build();
+
+        when(userService.getUserById(uuid))
+                .thenReturn(userResponse);
+
+        mockMvc.perform(get(USER_BY_ID_ENDPOINT, uuid))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$.version").doesNotExist())
+                .andExpect(jsonPath("$.updatedAt").doesNotExist());
+
+        mockMvc.perform(get(USER_BY_ID_ENDPOINT, uuid)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("Should update a user only at the version given by If-Match")
+    public void shouldUpdateAUserOnlyAtTheVersionGivenByIfMatch() throws Exception {
+        UserRequest userRequest = UserRequest.builder()
+                .name("Jose")
+                .age(33)
+                .build();
+
+        UUID uuid = UUID.randomUUID();
+
+        mockMvc.perform(put(USER_BY_ID_ENDPOINT, uuid)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(userRequest)))
+                .andExpect(status().isNoContent());
+
+        verify(userService, times(1)).updateUser(userRequest, uuid, 3L);
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should return 412 PreconditionFailed when the user changed since the If-Match version")
+    public void shouldReturnPreconditionFailedWhenTheUserChangedSinceTheIfMatchVersion() throws Exception {
+        UserRequest userRequest = UserRequest.builder()
+                .name("Jose")
+                .build();
+
+        UUID uuid = UUID.randomUUID();
+
+        doThrow(new PreconditionFailedException())
+                .when(userService).partialUpdateUser(userRequest, uuid, 3L);
+
+        mockMvc.perform(patch(USER_BY_ID_ENDPOINT, uuid)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(userRequest)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$[0].message", is("The user was changed since the given version")));
+
+        mockMvc.perform(patch(USER_BY_ID_ENDPOINT, uuid)
+                        .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(userRequest)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(userService, times(1)).partialUpdateUser(userRequest, uuid, 3L);
+        verifyNoMoreInteractions(userService);
+    }
+
     @Test
     @DisplayName("Should return a list with all users")
     public void shouldReturnAListWithAllUsers() throws Exception {
-        List<UserResponse> users = new ArrayList<>();
-
-        String uuid = UUID.randomUUID().toString();
+        UUID uuid = UUID.randomUUID();
 
         UserResponse userResponse = UserResponse.builder()
                 .name("Jose")
@@ -238,20 +678,187 @@ public class UserControllerTest {
                 .uuid(uuid)
                 .build();
 
-        users.add(userResponse);
+        doAnswer(invocation -> {
+            Consumer<UserResponse> consumer = invocation.getArgument(0);
+            consumer.accept(userResponse);
+            return null;
+        }).when(userService).streamAllUsers(any());
 
-        when(userService.getAllUsers())
-                .thenReturn(users);
+        when(userService.getUsersVersion())
+                .thenReturn("1-1700000000.0");
 
         mockMvc.perform(get(USERS_ENDPOINT))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-1700000000.0-json\""))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].uuid", is(uuid)))
+                .andExpect(jsonPath("$[0].uuid", is(uuid.toString())))
                 .andExpect(jsonPath("$[0].name", is("Jose")))
                 .andExpect(jsonPath("$[0].age", is(33)));
 
-        verify(userService, times(1)).getAllUsers();
+        verify(userService, times(1)).getUsersVersion();
+        verify(userService, times(1)).streamAllUsers(any());
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should return all users as parallel arrays when the columnar layout is accepted")
+    public void shouldReturnAllUsersAsParallelArraysWhenTheColumnarLayoutIsAccepted() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        UUID anotherUuid = UUID.randomUUID();
+
+        doAnswer(invocation -> {
+            Consumer<UserResponse> consumer = invocation.getArgument(0);
+            consumer.accept(new UserResponse(uuid, "Jose", 33));
+            consumer.accept(new UserResponse(anotherUuid, "Maria", null));
+            return null;
+        }).when(userService).streamAllUsers(any());
+
+        when(userService.getUsersVersion())
+                .thenReturn("2-1700000000.0");
+
+        mockMvc.perform(get(USERS_ENDPOINT)
+                        .accept(UserListWriter.APPLICATION_COLUMNAR_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(UserListWriter.APPLICATION_COLUMNAR_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"2-1700000000.0-vnd.users.columnar+json\""))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].uuid", contains(uuid.toString(), anotherUuid.toString())))
+                .andExpect(jsonPath("$[0].name", contains("Jose", "Maria")))
+                .andExpect(jsonPath("$[0].age", contains(33, null)));
+    }
+
+    @Test
+    @DisplayName("Should return all users encoded as Smile when it is accepted")
+    public void shouldReturnAllUsersEncodedAsSmileWhenItIsAccepted() throws Exception {
+        UUID uuid = UUID.randomUUID();
+
+        doAnswer(invocation -> {
+            Consumer<UserResponse> consumer = invocation.getArgument(0);
+            consumer.accept(new UserResponse(uuid, "Jose", 33));
+            return null;
+        }).when(userService).streamAllUsers(any());
+
+        byte[] body = mockMvc.perform(get(USERS_ENDPOINT)
+                        .accept(UserListWriter.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(UserListWriter.APPLICATION_SMILE))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        List<UserResponse> userResponses = new ObjectMapper(new SmileFactory())
+                .readValue(body, new TypeReference<>() {
+                });
+
+        assertEquals(List.of(new UserResponse(uuid, "Jose", 33)), userResponses);
+    }
+
+    @Test
+    @DisplayName("Should return 304 NotModified without streaming when the list did not change")
+    public void shouldReturnNotModifiedWithoutStreamingWhenTheListDidNotChange() throws Exception {
+        when(userService.getUsersVersion())
+                .thenReturn("1-1700000000.0");
+
+        mockMvc.perform(get(USERS_ENDPOINT)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"1-1700000000.0-json\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(userService, times(1)).getUsersVersion();
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should return a page of users")
+    public void shouldReturnAPageOfUsers() throws Exception {
+        UUID uuid = UUID.randomUUID();
+
+        UserResponse userResponse = UserResponse.builder()
+                .name("Jose")
+                .age(33)
+                .uuid(uuid)
+                .build();
+
+        UserPageResponse userPageResponse = UserPageResponse.builder()
+                .users(List.of(userResponse))
+                .nextCursor("next")
+                .build();
+
+        when(userService.getUsersPage("current", 1))
+                .thenReturn(userPageResponse);
+
+        mockMvc.perform(get(USERS_ENDPOINT)
+                        .param("limit", "1")
+                        .param("cursor", "current"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(1)))
+                .andExpect(jsonPath("$.users[0].uuid", is(uuid.toString())))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+
+        verify(userService, times(1)).getUsersPage("current", 1);
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should return 400 BadRequest when the page limit is invalid")
+    public void shouldReturnBadRequestWhenPageLimitIsInvalid() throws Exception {
+        when(userService.getUsersPage(null, 0))
+                .thenThrow(new BadRequestException("The limit must be between 1 and 1000"));
+
+        mockMvc.perform(get(USERS_ENDPOINT)
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].message", is("The limit must be between 1 and 1000")));
+    }
+
+    @Test
+    @DisplayName("Should search users with the query filters")
+    public void shouldSearchUsersWithTheQueryFilters() throws Exception {
+        UUID uuid = UUID.randomUUID();
+
+        UserSearchRequest userSearchRequest = UserSearchRequest.builder()
+                .name("jo")
+                .minAge(20)
+                .maxAge(40)
+                .sort("updatedAt")
+                .direction("desc")
+                .cursor("current")
+                .limit(10)
+                .build();
+
+        UserPageResponse userPageResponse = UserPageResponse.builder()
+                .users(List.of(new UserResponse(uuid, "Jose", 33)))
+                .nextCursor("next")
+                .build();
+
+        when(userService.searchUsers(userSearchRequest))
+                .thenReturn(userPageResponse);
+
+        mockMvc.perform(get(USERS_SEARCH_ENDPOINT)
+                        .param("name", "jo")
+                        .param("minAge", "20")
+                        .param("maxAge", "40")
+                        .param("sort", "updatedAt")
+                        .param("direction", "desc")
+                        .param("cursor", "current")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(1)))
+                .andExpect(jsonPath("$.users[0].uuid", is(uuid.toString())))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+
+        verify(userService, times(1)).searchUsers(userSearchRequest);
         verifyNoMoreInteractions(userService);
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Should return 400 BadRequest when a search filter is not a number")
+    public void shouldReturnBadRequestWhenASearchFilterIsNotANumber() throws Exception {
+        mockMvc.perform(get(USERS_SEARCH_ENDPOINT)
+                        .param("minAge", "twenty"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+}
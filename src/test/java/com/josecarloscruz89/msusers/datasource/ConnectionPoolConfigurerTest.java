@@ -0,0 +1,100 @@
+package com.josecarloscruz89.msusers.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Connection Pool Configurer Tests")
+public class ConnectionPoolConfigurerTest {
+
+    @Test
+    @DisplayName("Should apply the pool and driver settings to a Postgres pool")
+    public void shouldApplyThePoolAndDriverSettingsToAPostgresPool() {
+        HikariDataSource dataSource = dataSource("jdbc:postgresql://localhost:5455/users");
+
+        new ConnectionPoolConfigurer(properties(20, 5)).configure(dataSource);
+
+        assertEquals(20, dataSource.getMaximumPoolSize());
+        assertEquals(5, dataSource.getMinimumIdle());
+        assertEquals(30_000, dataSource.getConnectionTimeout());
+        assertEquals(1, dataSource.getDataSourceProperties().get("prepareThreshold"));
+        assertEquals(512, dataSource.getDataSourceProperties().get("preparedStatementCacheQueries"));
+        assertEquals(true, dataSource.getDataSourceProperties().get("reWriteBatchedInserts"));
+        assertEquals(30L, dataSource.getDataSourceProperties().get("socketTimeout"));
+    }
+
+    @Test
+    @DisplayName("Should not pass the driver settings to other databases")
+    public void shouldNotPassTheDriverSettingsToOtherDatabases() {
+        HikariDataSource dataSource = dataSource("jdbc:h2:mem:users");
+
+        new ConnectionPoolConfigurer(properties(20, null)).configure(dataSource);
+
+        assertEquals(20, dataSource.getMaximumPoolSize());
+        assertEquals(20, dataSource.getMinimumIdle());
+        assertTrue(dataSource.getDataSourceProperties().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should size the pool from the database cores shared by the instances when the size is 0")
+    public void shouldSizeThePoolFromTheDatabaseCoresSharedByTheInstancesWhenTheSizeIs0() {
+        assertEquals(17, properties(0, null, 8, 1).poolSize());
+        assertEquals(6, properties(0, null, 8, 3).poolSize());
+        assertEquals(1, properties(0, null, 1, 10).poolSize());
+        assertTrue(properties(0, null, 8, 3).isPoolSizeKnown());
+    }
+
+    @Test
+    @DisplayName("Should reject a pool size of 0 when the database cores are not set")
+    public void shouldRejectAPoolSizeOf0WhenTheDatabaseCoresAreNotSet() {
+        assertFalse(properties(0, null).isPoolSizeKnown());
+        assertTrue(properties(20, null).isPoolSizeKnown());
+    }
+
+    @Test
+    @DisplayName("Should reject more idle connections than the pool size")
+    public void shouldRejectMoreIdleConnectionsThanThePoolSize() {
+        assertFalse(properties(5, 10).isMinimumIdleWithinPoolSize());
+    }
+
+    @Test
+    @DisplayName("Should publish the settings as gauges")
+    public void shouldPublishTheSettingsAsGauges() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        new ConnectionPoolConfigurer(properties(20, 5)).bindTo(meterRegistry);
+
+        assertEquals(20, meterRegistry.get("users.datasource.pool.setting")
+                .tag("setting", "maximumPoolSize")
+                .gauge()
+                .value());
+        assertEquals(512, meterRegistry.get("users.datasource.pool.setting")
+                .tag("setting", "preparedStatementCacheQueries")
+                .gauge()
+                .value());
+    }
+
+    private static HikariDataSource dataSource(String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        return dataSource;
+    }
+
+    private static ConnectionPoolProperties properties(int maximumPoolSize, Integer minimumIdle) {
+        return properties(maximumPoolSize, minimumIdle, 0, 1);
+    }
+
+    private static ConnectionPoolProperties properties(int maximumPoolSize, Integer minimumIdle, int databaseCores,
+                                                       int instances) {
+        return new ConnectionPoolProperties(maximumPoolSize, 1, databaseCores, instances, minimumIdle,
+                Duration.ofSeconds(30), Duration.ZERO, 1, 512, 5, true, Duration.ofSeconds(30),
+                Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,106 @@
+package com.josecarloscruz89.msusers.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Read Write Routing Data Source Tests")
+public class ReadWriteRoutingDataSourceTest {
+
+    private final DataSource primary = embeddedDatabase("primary");
+
+    private final DataSource replica = embeddedDatabase("replica");
+
+    @BeforeEach
+    public void setUp() {
+        createSourceTable(primary, "primary");
+        createSourceTable(replica, "replica");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        new JdbcTemplate(primary).execute("DROP TABLE source");
+        new JdbcTemplate(replica).execute("DROP TABLE source");
+    }
+
+    @Test
+    @DisplayName("Should route read-only transactions to the replica")
+    public void shouldRouteReadOnlyTransactionsToTheReplica() {
+        ReadWriteRoutingDataSource routingDataSource = routingDataSource("SELECT 0");
+
+        assertEquals("replica", readSource(routingDataSource, true));
+        assertEquals(List.of("replica-0"), routingDataSource.getAvailableReplicas());
+    }
+
+    @Test
+    @DisplayName("Should route read-write transactions to the primary")
+    public void shouldRouteReadWriteTransactionsToThePrimary() {
+        assertEquals("primary", readSource(routingDataSource("SELECT 0"), false));
+    }
+
+    @Test
+    @DisplayName("Should route read-only transactions to the primary when asked to")
+    public void shouldRouteReadOnlyTransactionsToThePrimaryWhenAskedTo() {
+        ReadWriteRoutingDataSource routingDataSource = routingDataSource("SELECT 0");
+
+        assertEquals("primary", ReadWriteRoutingDataSource.usePrimary(() -> readSource(routingDataSource, true)));
+    }
+
+    @Test
+    @DisplayName("Should skip a replica that lags behind the tolerance")
+    public void shouldSkipAReplicaThatLagsBehindTheTolerance() {
+        ReadWriteRoutingDataSource routingDataSource = routingDataSource("SELECT 60");
+
+        assertEquals("primary", readSource(routingDataSource, true));
+        assertEquals(List.of(), routingDataSource.getAvailableReplicas());
+    }
+
+    @Test
+    @DisplayName("Should skip a replica whose lag cannot be measured")
+    public void shouldSkipAReplicaWhoseLagCannotBeMeasured() {
+        ReadWriteRoutingDataSource routingDataSource = routingDataSource("SELECT pg_is_in_recovery()");
+
+        assertEquals("primary", readSource(routingDataSource, true));
+    }
+
+    private ReadWriteRoutingDataSource routingDataSource(String lagQuery) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary,
+                Map.of("replica-0", replica), Duration.ofSeconds(10), lagQuery);
+        routingDataSource.afterPropertiesSet();
+        routingDataSource.checkReplicaLag();
+        return routingDataSource;
+    }
+
+    private static String readSource(ReadWriteRoutingDataSource routingDataSource, boolean readOnly) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT name FROM source", String.class));
+    }
+
+    private static DataSource embeddedDatabase(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+    }
+
+    private static void createSourceTable(DataSource dataSource, String name) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE source (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO source (name) VALUES (?)", name);
+    }
+}
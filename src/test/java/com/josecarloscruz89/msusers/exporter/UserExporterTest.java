@@ -0,0 +1,102 @@
+package com.josecarloscruz89.msusers.exporter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("User Exporter Tests")
+public class UserExporterTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2023, 7, 1, 10, 15, 0, 120_000_000);
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:export;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    private final TransactionTemplate transactionTemplate =
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final UserExporter userExporter = new UserExporter(jdbcTemplate, new ObjectMapper(), meterRegistry);
+
+    private final List<UUID> userIds = List.of(
+            UUID.fromString("018f0000-0000-7000-8000-000000000001"),
+            UUID.fromString("018f0000-0000-7000-8000-000000000002"),
+            UUID.fromString("018f0000-0000-7000-8000-000000000003"));
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.execute("CREATE TABLE users (uuid UUID PRIMARY KEY, name VARCHAR(50) NOT NULL, age INTEGER, " +
+                "version BIGINT NOT NULL DEFAULT 0, updated_at TIMESTAMP NOT NULL, created_at TIMESTAMP NOT NULL)");
+
+        List<String> names = List.of("Jose", "Cruz, \"Ana\"", "Maria");
+        for (int index = 0; index < userIds.size(); index++) {
+            jdbcTemplate.update("INSERT INTO users (uuid, name, age, updated_at, created_at) VALUES (?, ?, ?, ?, ?)",
+                    userIds.get(index), names.get(index), index == 2 ? null : 30 + index, CREATED_AT, CREATED_AT);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.execute("DROP TABLE users");
+    }
+
+    @Test
+    @DisplayName("Should export every user as CSV ordered by id")
+    public void shouldExportEveryUserAsCsvOrderedById() {
+        String csv = export(UserExportFormat.CSV, null, null);
+
+        assertEquals("""
+                uuid,name,age,created_at,updated_at
+                018f0000-0000-7000-8000-000000000001,Jose,30,2023-07-01 10:15:00.12,2023-07-01 10:15:00.12
+                018f0000-0000-7000-8000-000000000002,"Cruz, ""Ana\"\"\",31,2023-07-01 10:15:00.12,2023-07-01 10:15:00.12
+                018f0000-0000-7000-8000-000000000003,Maria,,2023-07-01 10:15:00.12,2023-07-01 10:15:00.12
+                """, csv);
+        assertEquals(3, meterRegistry.get("users.export.rows").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should export the users between the given ids as NDJSON")
+    public void shouldExportTheUsersBetweenTheGivenIdsAsNdjson() throws Exception {
+        String ndjson = export(UserExportFormat.NDJSON, userIds.get(0), null);
+
+        List<String> lines = ndjson.lines().toList();
+        assertEquals(2, lines.size());
+
+        JsonNode first = new ObjectMapper().readTree(lines.get(0));
+        assertEquals(userIds.get(1).toString(), first.get("uuid").asText());
+        assertEquals("Cruz, \"Ana\"", first.get("name").asText());
+        assertEquals(31, first.get("age").asInt());
+        assertEquals("2023-07-01T10:15:00.12", first.get("createdAt").asText());
+        assertEquals(true, new ObjectMapper().readTree(lines.get(1)).get("age").isNull());
+
+        assertEquals(userIds.get(1).toString(),
+                new ObjectMapper().readTree(export(UserExportFormat.NDJSON, userIds.get(0), userIds.get(2)))
+                        .get("uuid").asText());
+    }
+
+    private String export(UserExportFormat format, UUID after, UUID before) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        transactionTemplate.executeWithoutResult(status ->
+                userExporter.export(format, after, before, outputStream));
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
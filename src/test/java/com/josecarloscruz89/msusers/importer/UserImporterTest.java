@@ -0,0 +1,178 @@
+package com.josecarloscruz89.msusers.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.josecarloscruz89.msusers.exception.BadRequestException;
+import com.josecarloscruz89.msusers.model.dto.ItemErrorResponse;
+import com.josecarloscruz89.msusers.model.dto.UserImportResponse;
+import com.josecarloscruz89.msusers.outbox.ChangeFeedProperties;
+import com.josecarloscruz89.msusers.outbox.UserOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("User Importer Tests")
+public class UserImporterTest {
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:import;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final UserOutbox userOutbox = new UserOutbox(new ChangeFeedProperties(500, Duration.ofSeconds(1),
+            Duration.ofMillis(50), 1), jdbcTemplate, meterRegistry);
+
+    private final UserImporter userImporter = new UserImporter(new ImportProperties(100, 4, 10, 100), jdbcTemplate,
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+            Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), userOutbox, meterRegistry);
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.execute("CREATE TABLE users (uuid UUID PRIMARY KEY, name VARCHAR(50) NOT NULL, age INTEGER, " +
+                "version BIGINT NOT NULL DEFAULT 0, updated_at TIMESTAMP NOT NULL, created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE user_events (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "user_uuid UUID NOT NULL, type VARCHAR(10) NOT NULL, name VARCHAR(50), age INTEGER, " +
+                "version BIGINT, occurred_at TIMESTAMP NOT NULL, txid BIGINT NOT NULL DEFAULT 0)");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userOutbox.destroy();
+        jdbcTemplate.execute("DROP TABLE users");
+        jdbcTemplate.execute("DROP TABLE user_events");
+    }
+
+    @Test
+    @DisplayName("Should import every row of a CSV file spanning many chunks")
+    public void shouldImportEveryRowOfACsvFileSpanningManyChunks() throws Exception {
+        List<InputStream> lines = IntStream.range(0, 1050)
+                .mapToObj(index -> stream("User " + (char) ('a' + index % 26) + "," + (index % 100) + "\n"))
+                .toList();
+        InputStream csv = new SequenceInputStream(stream("name,age\n"),
+                new SequenceInputStream(Collections.enumeration(lines)));
+
+        UserImportResponse response = userImporter.importUsers(csv, UserImportFormat.CSV, StandardCharsets.UTF_8);
+
+        assertEquals(1050, response.getImported());
+        assertEquals(0, response.getRejected());
+        assertEquals(1050, jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class));
+        assertEquals(1050, jdbcTemplate.queryForObject("SELECT count(*) FROM user_events e JOIN users u " +
+                "ON u.uuid = e.user_uuid WHERE e.type = 'CREATED' AND e.name = u.name", Long.class));
+        assertEquals(1050, meterRegistry.get("users.import.rows").tag("outcome", "imported").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should read quoted CSV fields and report the invalid rows")
+    public void shouldReadQuotedCsvFieldsAndReportTheInvalidRows() throws Exception {
+        String csv = """
+                id,age,name\r
+                1,33,"Jose"\r
+                2,thirty,Maria\r
+                3,40\r
+                4,,Joao\r
+                
+                5,25,"Ana ""Bia"" Souza"\r
+                """;
+
+        UserImportResponse response = userImporter.importUsers(stream(csv), UserImportFormat.CSV,
+                StandardCharsets.UTF_8);
+
+        assertEquals(2, response.getImported());
+        assertEquals(3, response.getRejected());
+        assertEquals(List.of(1, 2, 3), response.getRejects().stream().map(ItemErrorResponse::getIndex).toList());
+        assertEquals("The field age is required", response.getRejects().get(2).getMessage());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE name = 'Ana \"Bia\" Souza'",
+                Long.class));
+    }
+
+    @Test
+    @DisplayName("Should reject a CSV row past the maximum length and carry on at the next line")
+    public void shouldRejectACsvRowPastTheMaximumLength() throws Exception {
+        String csv = "name,age\n\"Jose,33\n" + "User a,20\n".repeat(50);
+
+        UserImportResponse response = userImporter.importUsers(stream(csv), UserImportFormat.CSV,
+                StandardCharsets.UTF_8);
+
+        assertEquals(40, response.getImported());
+        assertEquals(1, response.getRejected());
+        assertEquals("The row is longer than 100 characters", response.getRejects().get(0).getMessage());
+        assertEquals(40, jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class));
+    }
+
+    @Test
+    @DisplayName("Should reject an NDJSON line past the maximum length")
+    public void shouldRejectAnNdjsonLinePastTheMaximumLength() throws Exception {
+        String ndjson = "{\"name\": \"" + "a".repeat(200) + "\", \"age\": 33}\n{\"name\": \"Joao\", \"age\": 40}\n";
+
+        UserImportResponse response = userImporter.importUsers(stream(ndjson), UserImportFormat.NDJSON,
+                StandardCharsets.UTF_8);
+
+        assertEquals(1, response.getImported());
+        assertEquals(1, response.getRejected());
+        assertEquals(0, response.getRejects().get(0).getIndex());
+        assertEquals("The row is longer than 100 characters", response.getRejects().get(0).getMessage());
+    }
+
+    @Test
+    @DisplayName("Should import NDJSON and carry on after a malformed line")
+    public void shouldImportNdjsonAndCarryOnAfterAMalformedLine() throws Exception {
+        String ndjson = """
+                {"name": "Jose", "age": 33}
+                {"name": "Maria", "age":
+                
+                {"name": "Joao", "age": 40}
+                """;
+
+        UserImportResponse response = userImporter.importUsers(stream(ndjson), UserImportFormat.NDJSON,
+                StandardCharsets.UTF_8);
+
+        assertEquals(2, response.getImported());
+        assertEquals(1, response.getRejected());
+        assertEquals(1, response.getRejects().get(0).getIndex());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class));
+    }
+
+    @Test
+    @DisplayName("Should list at most the configured number of rejects but count them all")
+    public void shouldListAtMostTheConfiguredNumberOfRejects() throws Exception {
+        String ndjson = "{\"name\": \"\", \"age\": 1}\n".repeat(250);
+
+        UserImportResponse response = userImporter.importUsers(stream(ndjson), UserImportFormat.NDJSON,
+                StandardCharsets.UTF_8);
+
+        assertEquals(0, response.getImported());
+        assertEquals(250, response.getRejected());
+        assertEquals(10, response.getRejects().size());
+    }
+
+    @Test
+    @DisplayName("Should refuse a CSV file without the name and age columns")
+    public void shouldRefuseACsvFileWithoutTheNameAndAgeColumns() {
+        assertThrows(BadRequestException.class, () -> userImporter.importUsers(stream("name,years\nJose,33\n"),
+                UserImportFormat.CSV, StandardCharsets.UTF_8));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -4,6 +4,7 @@ import com.josecarloscruz89.msusers.integration.core.IntegrationTest;
 import com.josecarloscruz89.msusers.model.entity.UserEntity;
 import com.josecarloscruz89.msusers.repository.UserRepository;
 import com.josecarloscruz89.msusers.utils.FileUtils;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,7 +12,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 import static com.josecarloscruz89.msusers.integration.factory.UserFactory.createUser;
@@ -35,11 +38,17 @@ public class UserControllerTestIT {
 
     private static final String USERS_ENDPOINT = "/users";
     private static final String USERS_BY_ID_ENDPOINT = "/users/{userId}";
+    private static final String USERS_BATCH_ENDPOINT = "/users/batch";
+    private static final String USERS_LOOKUP_ENDPOINT = "/users/lookup";
+    private static final String USERS_SEARCH_ENDPOINT = "/users/search";
+    private static final String USERS_IMPORT_ENDPOINT = "/users/import";
+    private static final String USERS_EXPORT_ENDPOINT = "/users/export";
+    private static final String USERS_CHANGES_ENDPOINT = "/users/changes";
     private static final Integer UUID_LENGTH = UUID.randomUUID().toString().length();
 
     @BeforeEach
     public void setup() {
-        deleteFromTables(jdbcTemplate, "users");
+        deleteFromTables(jdbcTemplate, "users", "user_events");
     }
 
 
@@ -59,6 +68,27 @@ public class UserControllerTestIT {
                 .andExpect(jsonPath("$[*].age", containsInAnyOrder(30, 40)));
     }
 
+    @Test
+    @DisplayName("Should return all users page by page")
+    void shouldReturnAllUsersPageByPage() throws Exception {
+        userRepository.save(createUser("userPageOne", 30));
+        userRepository.save(createUser("userPageTwo", 40));
+
+        String firstPage = mockMvc.perform(get(USERS_ENDPOINT).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String nextCursor = JsonPath.read(firstPage, "$.nextCursor");
+
+        mockMvc.perform(get(USERS_ENDPOINT).param("limit", "1").param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(1)));
+    }
+
     @Test
     @DisplayName("Should return an user by id")
     void shouldReturnAnUserById() throws Exception {
@@ -66,25 +96,32 @@ public class UserControllerTestIT {
 
         userRepository.save(userTestGetUserById);
 
-        String uuid = userTestGetUserById.getUuid();
+        UUID uuid = userTestGetUserById.getUuid();
 
         mockMvc.perform(get(USERS_BY_ID_ENDPOINT, uuid))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", is("userTestGetUserById")))
                 .andExpect(jsonPath("$.age", is(15)))
-                .andExpect(jsonPath("$.uuid", is(uuid)))
-                .andExpect(jsonPath("$.uuid", hasLength(uuid.length())));
+                .andExpect(jsonPath("$.uuid", is(uuid.toString())))
+                .andExpect(jsonPath("$.uuid", hasLength(UUID_LENGTH)));
     }
 
     @Test
     @DisplayName("Should return 404 NotFound Exception when the user does not exist")
     void shouldReturn404NotFoundExceptionWhenTheUserDoesNotExist() throws Exception {
-        String uuid = "999";
+        UUID uuid = UUID.randomUUID();
 
         mockMvc.perform(get(USERS_BY_ID_ENDPOINT, uuid))
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Should return 400 BadRequest when the user id is not a valid uuid")
+    void shouldReturn400BadRequestWhenTheUserIdIsNotAValidUuid() throws Exception {
+        mockMvc.perform(get(USERS_BY_ID_ENDPOINT, "999"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Should create a new user")
     void shouldCreateANewUser() throws Exception {
@@ -97,6 +134,157 @@ public class UserControllerTestIT {
                 .andExpect(header().string("Location", hasLength(UUID_LENGTH)));
     }
 
+    @Test
+    @DisplayName("Should import a CSV file through COPY and report the rejected rows")
+    void shouldImportACsvFileThroughCopyAndReportTheRejectedRows() throws Exception {
+        String csv = "name,age\n" + "userImported,30\n".repeat(25_000) + "\"user \"\"Quoted\"\"\",40\n,50\n";
+
+        mockMvc.perform(post(USERS_IMPORT_ENDPOINT)
+                        .content(csv)
+                        .contentType("text/csv"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(25_001)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.rejects[0].index", is(25_001)));
+
+        assertThat(userRepository.count(), is(25_001L));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE name = 'user \"Quoted\"'",
+                Long.class), is(1L));
+    }
+
+    @Test
+    @DisplayName("Should export the users through COPY and resume after the last exported id")
+    void shouldExportTheUsersThroughCopyAndResumeAfterTheLastExportedId() throws Exception {
+        userRepository.save(createUser("userExportOne", 30));
+        userRepository.save(createUser("userExportTwo", 40));
+
+        String csv = mockMvc.perform(get(USERS_EXPORT_ENDPOINT).accept("text/csv"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = csv.split("\n");
+        assertThat(lines.length, is(3));
+        assertThat(lines[0], is("uuid,name,age,created_at,updated_at"));
+
+        String firstId = lines[1].substring(0, UUID_LENGTH);
+        mockMvc.perform(get(USERS_EXPORT_ENDPOINT)
+                        .param("after", firstId)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(lines[2].substring(0, UUID_LENGTH))))
+                .andExpect(content().string(not(containsString(firstId))));
+    }
+
+    @Test
+    @DisplayName("Should stream the changes of a user in the order they were committed")
+    void shouldStreamTheChangesOfAUserInTheOrderTheyWereCommitted() throws Exception {
+        String location = mockMvc.perform(post(USERS_ENDPOINT)
+                        .content(FileUtils.getJSONFromFile("createUser.json"))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getHeader("Location");
+        UUID uuid = UUID.fromString(location);
+
+        mockMvc.perform(put(USERS_BY_ID_ENDPOINT, uuid)
+                        .content(FileUtils.getJSONFromFile("updateUser.json"))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete(USERS_BY_ID_ENDPOINT, uuid))
+                .andExpect(status().isNoContent());
+
+        MvcResult changesResult = mockMvc.perform(get(USERS_CHANGES_ENDPOINT))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String changes = mockMvc.perform(asyncDispatch(changesResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[*].type", contains("CREATED", "UPDATED", "DELETED")))
+                .andExpect(jsonPath("$.changes[1].name", is("Updated User Integration Test")))
+                .andExpect(jsonPath("$.changes[1].version", is(1)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String nextCursor = JsonPath.read(changes, "$.nextCursor");
+        MvcResult nextChangesResult = mockMvc.perform(get(USERS_CHANGES_ENDPOINT)
+                        .param("since", nextCursor)
+                        .param("limit", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(nextChangesResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(0)))
+                .andExpect(jsonPath("$.nextCursor", is(nextCursor)));
+    }
+
+    @Test
+    @DisplayName("Should sync the users updated and deleted since a time page by page")
+    void shouldSyncTheUsersUpdatedAndDeletedSinceATimePageByPage() throws Exception {
+        UserEntity kept = createUser("userSyncKept", 30);
+        UserEntity deleted = createUser("userSyncDeleted", 40);
+        userRepository.save(kept);
+        userRepository.save(deleted);
+        LocalDateTime since = LocalDateTime.now();
+
+        mockMvc.perform(put(USERS_BY_ID_ENDPOINT, kept.getUuid())
+                        .content(FileUtils.getJSONFromFile("updateUser.json"))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete(USERS_BY_ID_ENDPOINT, deleted.getUuid()))
+                .andExpect(status().isNoContent());
+
+        String firstPage = mockMvc.perform(get(USERS_ENDPOINT)
+                        .param("updatedSince", since.toString())
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[*].uuid", contains(kept.getUuid().toString())))
+                .andExpect(jsonPath("$.deletedIds", hasSize(0)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        mockMvc.perform(get(USERS_ENDPOINT)
+                        .param("updatedSince", since.toString())
+                        .param("cursor", JsonPath.<String>read(firstPage, "$.nextCursor"))
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(0)))
+                .andExpect(jsonPath("$.deletedIds", contains(deleted.getUuid().toString())));
+    }
+
+    @Test
+    @DisplayName("Should create users in batch")
+    void shouldCreateUsersInBatch() throws Exception {
+        String requestBody = FileUtils.getJSONFromFile("createUsersBatch.json");
+
+        mockMvc.perform(post(USERS_BATCH_ENDPOINT)
+                        .content(requestBody)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.uuids", hasSize(2)))
+                .andExpect(jsonPath("$.uuids[0]", hasLength(UUID_LENGTH)));
+
+        assertThat(userRepository.count(), is(2L));
+    }
+
+    @Test
+    @DisplayName("Should report the invalid items of a batch and create none")
+    void shouldReportInvalidItemsOfABatch() throws Exception {
+        String requestBody = FileUtils.getJSONFromFile("createUsersBatchWithInvalidItem.json");
+
+        mockMvc.perform(post(USERS_BATCH_ENDPOINT)
+                        .content(requestBody)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[*].index", everyItem(is(1))));
+
+        assertThat(userRepository.count(), is(0L));
+    }
+
     @Test
     @DisplayName("Should return 400 when request body does not exist")
     void shouldReturn400WhenRequestBodyDoesNOtExist() throws Exception {
@@ -110,7 +298,7 @@ public class UserControllerTestIT {
     void shouldUpdateAnExistingUserAndReturnNoContent() throws Exception {
         UserEntity userPutTest = createUser("userPutTest", 30);
         userRepository.save(userPutTest);
-        String uuid = userPutTest.getUuid();
+        UUID uuid = userPutTest.getUuid();
 
         String requestBody = FileUtils.getJSONFromFile("updateUser.json");
 
@@ -130,7 +318,7 @@ public class UserControllerTestIT {
     void shouldReturnBadRequestWhenRequestBodyIsEmpty() throws Exception {
         UserEntity userPutTest = createUser("userPutTest", 30);
         userRepository.save(userPutTest);
-        String uuid = userPutTest.getUuid();
+        UUID uuid = userPutTest.getUuid();
 
         mockMvc.perform(put(USERS_BY_ID_ENDPOINT, uuid)
                         .contentType(MediaType.APPLICATION_JSON))
@@ -155,7 +343,7 @@ public class UserControllerTestIT {
     void shouldReturnBadRequestWhenAgeKeyIsNotPresent() throws Exception {
         UserEntity userPutTest = createUser("userPutTest", 30);
         userRepository.save(userPutTest);
-        String uuid = userPutTest.getUuid();
+        UUID uuid = userPutTest.getUuid();
 
         String requestBody = FileUtils.getJSONFromFile("updateUserWithoutAge.json");
 
@@ -170,7 +358,7 @@ public class UserControllerTestIT {
     void shouldReturnBadRequestWhenNameKeyIsNotPresent() throws Exception {
         UserEntity userPutTest = createUser("userPutTest", 30);
         userRepository.save(userPutTest);
-        String uuid = userPutTest.getUuid();
+        UUID uuid = userPutTest.getUuid();
 
         String requestBody = FileUtils.getJSONFromFile("updateUserWithoutName.json");
 
@@ -185,7 +373,7 @@ public class UserControllerTestIT {
     void shouldReturnBadRequestWhenNameKeyIsNotAString() throws Exception {
         UserEntity userPutTest = createUser("userPutTest", 30);
         userRepository.save(userPutTest);
-        String uuid = userPutTest.getUuid();
+        UUID uuid = userPutTest.getUuid();
 
         String requestBody = FileUtils.getJSONFromFile("updateUserNameIsNotAString.json");
 
@@ -201,7 +389,7 @@ public class UserControllerTestIT {
     void shouldReturnBadRequestWhenTheAgeIsNotAnInteger() throws Exception {
         UserEntity userPutTest = createUser("userPutTest", 30);
         userRepository.save(userPutTest);
-        String uuid = userPutTest.getUuid();
+        UUID uuid = userPutTest.getUuid();
 
         String requestBody = FileUtils.getJSONFromFile("updateUserAgeIsNotAnInteger.json");
 
@@ -216,7 +404,7 @@ public class UserControllerTestIT {
     void shouldPartiallyUpdateAnExistingUserName() throws Exception {
         UserEntity userPatchNameTest = createUser("userPatchNameTest", 40);
         userRepository.save(userPatchNameTest);
-        String uuid = userPatchNameTest.getUuid();
+        UUID uuid = userPatchNameTest.getUuid();
 
         String requestBody = FileUtils.getJSONFromFile("partiallyUpdateUserName.json");
 
@@ -236,7 +424,7 @@ public class UserControllerTestIT {
     void shouldPartiallyUpdateAnExistingUserAge() throws Exception {
         UserEntity userPatchAgeTest = createUser("userPatchAgeTest", 40);
         userRepository.save(userPatchAgeTest);
-        String uuid = userPatchAgeTest.getUuid();
+        UUID uuid = userPatchAgeTest.getUuid();
 
         String requestBody = FileUtils.getJSONFromFile("partiallyUpdateUserAge.json");
 
@@ -256,10 +444,140 @@ public class UserControllerTestIT {
     void shouldDeleteAnExistingUserAndReturnNoContent() throws Exception {
         UserEntity userDeleteTest = createUser("userDeleteTest", 50);
         userRepository.save(userDeleteTest);
-        String uuid = userDeleteTest.getUuid();
+        UUID uuid = userDeleteTest.getUuid();
 
         mockMvc.perform(delete(USERS_BY_ID_ENDPOINT, uuid))
                 .andExpect(status().isNoContent());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should delete existing users by ids and return no content")
+    void shouldDeleteExistingUsersByIdsAndReturnNoContent() throws Exception {
+        UserEntity userDeleteOne = createUser("userDeleteOne", 50);
+        UserEntity userDeleteTwo = createUser("userDeleteTwo", 60);
+        UserEntity userKept = createUser("userKept", 70);
+        userRepository.save(userDeleteOne);
+        userRepository.save(userDeleteTwo);
+        userRepository.save(userKept);
+
+        mockMvc.perform(delete(USERS_ENDPOINT)
+                        .param("ids", userDeleteOne.getUuid().toString(), userDeleteTwo.getUuid().toString(),
+                                UUID.randomUUID().toString()))
+                .andExpect(status().isNoContent());
+
+        assertThat(userRepository.count(), is(1L));
+        assertThat(userRepository.existsById(userKept.getUuid()), is(true));
+    }
+
+    @Test
+    @DisplayName("Should look up users by ids in request order")
+    void shouldLookUpUsersByIdsInRequestOrder() throws Exception {
+        UserEntity userLookupOne = createUser("userLookupOne", 20);
+        UserEntity userLookupTwo = createUser("userLookupTwo", 30);
+        userRepository.save(userLookupOne);
+        userRepository.save(userLookupTwo);
+
+        UUID missingUuid = UUID.randomUUID();
+        String requestBody = String.format("{\"ids\": [\"%s\", \"%s\", \"%s\"]}",
+                userLookupTwo.getUuid(), missingUuid, userLookupOne.getUuid());
+
+        mockMvc.perform(post(USERS_LOOKUP_ENDPOINT)
+                        .content(requestBody)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[*].name", contains("userLookupTwo", "userLookupOne")))
+                .andExpect(jsonPath("$.missingIds", contains(missingUuid.toString())));
+    }
+
+    @Test
+    @DisplayName("Should search users by name prefix and age range, newest first and page by page")
+    void shouldSearchUsersByNamePrefixAndAgeRangeNewestFirstAndPageByPage() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.save(createSearchUser("searchAna", 25, now.minusMinutes(2)));
+        userRepository.save(createSearchUser("searchAnabel", 28, now.minusMinutes(1)));
+        userRepository.save(createSearchUser("searchAnna", 45, now));
+        userRepository.save(createSearchUser("searchBob", 25, now));
+
+        String firstPage = mockMvc.perform(get(USERS_SEARCH_ENDPOINT)
+                        .param("name", "SEARCHANA")
+                        .param("minAge", "20")
+                        .param("maxAge", "30")
+                        .param("direction", "desc")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[*].name", contains("searchAnabel")))
+                .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        mockMvc.perform(get(USERS_SEARCH_ENDPOINT)
+                        .param("name", "SEARCHANA")
+                        .param("minAge", "20")
+                        .param("maxAge", "30")
+                        .param("direction", "desc")
+                        .param("limit", "1")
+                        .param("cursor", JsonPath.<String>read(firstPage, "$.nextCursor")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[*].name", contains("searchAna")));
+    }
+
+    @Test
+    @DisplayName("Should answer 304 to a current ETag and 412 to an update at a stale version")
+    void shouldAnswerNotModifiedToACurrentETagAndPreconditionFailedToAStaleUpdate() throws Exception {
+        UserEntity userVersionTest = createUser("userVersionTest", 30);
+        userRepository.save(userVersionTest);
+        UUID uuid = userVersionTest.getUuid();
+
+        mockMvc.perform(get(USERS_BY_ID_ENDPOINT, uuid))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""));
+
+        mockMvc.perform(get(USERS_BY_ID_ENDPOINT, uuid)
+                        .header("If-None-Match", "\"0\""))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch(USERS_BY_ID_ENDPOINT, uuid)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\": 31}"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(patch(USERS_BY_ID_ENDPOINT, uuid)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\": 32}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get(USERS_BY_ID_ENDPOINT, uuid))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.age", is(31)));
+    }
+
+    @Test
+    @DisplayName("Should expose the service metrics on the prometheus endpoint")
+    void shouldExposeServiceMetricsOnThePrometheusEndpoint() throws Exception {
+        UserEntity userMetricsTest = createUser("userMetricsTest", 25);
+        userRepository.save(userMetricsTest);
+
+        mockMvc.perform(get(USERS_BY_ID_ENDPOINT, userMetricsTest.getUuid()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("users_service_seconds_bucket")))
+                .andExpect(content().string(containsString("operation=\"getById\"")))
+                .andExpect(content().string(containsString("users_db_queries")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"users\"")));
+    }
+
+    private static UserEntity createSearchUser(String name, int age, LocalDateTime createdAt) {
+        UserEntity userEntity = createUser(name, age);
+        userEntity.setCreatedAt(createdAt);
+        userEntity.setUpdatedAt(createdAt);
+        return userEntity;
+    }
+}
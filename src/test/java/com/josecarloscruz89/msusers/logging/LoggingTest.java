@@ -0,0 +1,61 @@
+package com.josecarloscruz89.msusers.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import com.josecarloscruz89.msusers.model.dto.UserRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Logging Tests")
+public class LoggingTest {
+
+    private final Logger logger = new LoggerContext().getLogger(LoggingTest.class);
+
+    @Test
+    @DisplayName("Should let through about one in rate of the sampled events")
+    public void shouldLetThroughAboutOneInRateOfTheSampledEvents() {
+        SamplingTurboFilter samplingTurboFilter = samplingTurboFilter(10);
+
+        long written = IntStream.range(0, 100_000)
+                .mapToObj(index -> samplingTurboFilter.decide(LogMarkers.SAMPLED, logger, Level.INFO, "Read", null,
+                        null))
+                .filter(FilterReply.NEUTRAL::equals)
+                .count();
+
+        assertTrue(written > 9_000 && written < 11_000, "Wrote " + written + " sampled events");
+    }
+
+    @Test
+    @DisplayName("Should leave the events that are not sampled to the rest of the configuration")
+    public void shouldLeaveTheEventsThatAreNotSampledToTheRestOfTheConfiguration() {
+        SamplingTurboFilter samplingTurboFilter = samplingTurboFilter(1_000_000);
+
+        IntStream.range(0, 1000).forEach(index -> assertEquals(FilterReply.NEUTRAL,
+                samplingTurboFilter.decide(null, logger, Level.INFO, "Write", null, null)));
+    }
+
+    @Test
+    @DisplayName("Should mask the user name when a request is logged")
+    public void shouldMaskTheUserNameWhenARequestIsLogged() {
+        String logged = new UserRequest("Jose Carlos", 33).toString();
+
+        assertFalse(logged.contains("Jose Carlos"), logged);
+        assertTrue(logged.contains("name=J***"), logged);
+        assertEquals("", PersonalData.mask(""));
+    }
+
+    private static SamplingTurboFilter samplingTurboFilter(int rate) {
+        SamplingTurboFilter samplingTurboFilter = new SamplingTurboFilter();
+        samplingTurboFilter.setRate(rate);
+        samplingTurboFilter.start();
+        return samplingTurboFilter;
+    }
+}
@@ -0,0 +1,53 @@
+package com.josecarloscruz89.msusers.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Query Counting Data Source Tests")
+public class QueryCountingDataSourceTest {
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new QueryCountingDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:counting;DB_CLOSE_DELAY=-1", "sa", "")));
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.execute("CREATE TABLE users (name VARCHAR(50))");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        QueryCounter.stop();
+        jdbcTemplate.execute("DROP TABLE users");
+    }
+
+    @Test
+    @DisplayName("Should count every statement executed while counting and a batch once")
+    public void shouldCountEveryStatementExecutedWhileCountingAndABatchOnce() {
+        QueryCounter.start();
+
+        jdbcTemplate.update("INSERT INTO users (name) VALUES (?)", "Jose");
+        jdbcTemplate.batchUpdate("INSERT INTO users (name) VALUES (?)",
+                List.of(new Object[]{"Ana"}, new Object[]{"Bob"}));
+        Integer users = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Integer.class);
+
+        assertEquals(3, users);
+        assertEquals(3, QueryCounter.stop());
+    }
+
+    @Test
+    @DisplayName("Should not count the statements executed outside of a count")
+    public void shouldNotCountTheStatementsExecutedOutsideOfACount() {
+        jdbcTemplate.update("INSERT INTO users (name) VALUES (?)", "Jose");
+
+        QueryCounter.start();
+        assertEquals(0, QueryCounter.stop());
+    }
+}
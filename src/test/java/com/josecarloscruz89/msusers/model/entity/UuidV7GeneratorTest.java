@@ -0,0 +1,34 @@
+package com.josecarloscruz89.msusers.model.entity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("UUIDv7 Generator Tests")
+public class UuidV7GeneratorTest {
+
+    @Test
+    @DisplayName("Should generate version 7 uuids with the IETF variant")
+    public void shouldGenerateVersion7Uuids() {
+        UUID uuid = UuidV7Generator.next();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+    }
+
+    @Test
+    @DisplayName("Should start with the creation time in milliseconds")
+    public void shouldStartWithTheCreationTime() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7Generator.next();
+        long after = System.currentTimeMillis();
+
+        long timestamp = uuid.getMostSignificantBits() >>> 16;
+
+        assertTrue(timestamp >= before && timestamp <= after);
+    }
+}
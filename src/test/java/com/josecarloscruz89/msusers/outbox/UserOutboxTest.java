@@ -0,0 +1,195 @@
+package com.josecarloscruz89.msusers.outbox;
+
+import com.josecarloscruz89.msusers.model.dto.UserChangeResponse;
+import com.josecarloscruz89.msusers.model.dto.UserChangeType;
+import com.josecarloscruz89.msusers.model.entity.UserEntity;
+import com.josecarloscruz89.msusers.model.entity.UuidV7Generator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("User Outbox Tests")
+public class UserOutboxTest {
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:outbox;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final UserOutbox userOutbox = new UserOutbox(new ChangeFeedProperties(500, Duration.ofMillis(300),
+            Duration.ofMillis(20), 1), jdbcTemplate, meterRegistry);
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.execute("CREATE TABLE users (uuid UUID PRIMARY KEY, name VARCHAR(50) NOT NULL, age INTEGER, " +
+                "version BIGINT NOT NULL DEFAULT 0, updated_at TIMESTAMP NOT NULL, created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE user_events (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "user_uuid UUID NOT NULL, type VARCHAR(10) NOT NULL, name VARCHAR(50), age INTEGER, " +
+                "version BIGINT, occurred_at TIMESTAMP NOT NULL, txid BIGINT NOT NULL DEFAULT 0)");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userOutbox.destroy();
+        jdbcTemplate.execute("DROP TABLE users");
+        jdbcTemplate.execute("DROP TABLE user_events");
+    }
+
+    @Test
+    @DisplayName("Should return every change of a user in the order they were made")
+    public void shouldReturnEveryChangeOfAUserInTheOrderTheyWereMade() {
+        UserEntity userEntity = insert("Jose", 33);
+        userOutbox.created(List.of(userEntity));
+
+        LocalDateTime updatedAt = LocalDateTime.now();
+        jdbcTemplate.update("UPDATE users SET age = 34, version = version + 1, updated_at = ? WHERE uuid = ?",
+                updatedAt, userEntity.getUuid());
+        userOutbox.updated(List.of(userEntity.getUuid()), updatedAt);
+
+        userOutbox.deleted(List.of(userEntity.getUuid(), UUID.randomUUID()), LocalDateTime.now());
+        jdbcTemplate.update("DELETE FROM users WHERE uuid = ?", userEntity.getUuid());
+
+        List<UserEvent> events = userOutbox.poll(0, 0, 10);
+
+        assertEquals(List.of(UserChangeType.CREATED, UserChangeType.UPDATED, UserChangeType.DELETED),
+                events.stream().map(event -> event.change().getType()).toList());
+        assertTrue(events.stream().allMatch(event -> userEntity.getUuid().equals(event.change().getUuid())));
+
+        UserChangeResponse updated = events.get(1).change();
+        assertEquals("Jose", updated.getName());
+        assertEquals(34, updated.getAge());
+        assertEquals(1L, updated.getVersion());
+        assertNull(events.get(2).change().getName());
+        assertEquals(3, meterRegistry.get("users.outbox.appended").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should return the changes after the given id up to the limit")
+    public void shouldReturnTheChangesAfterTheGivenIdUpToTheLimit() {
+        userOutbox.created(List.of(insert("Ana", 20), insert("Bob", 30), insert("Carl", 40)));
+
+        List<UserEvent> firstEvents = userOutbox.poll(0, 0, 2);
+        List<UserEvent> nextEvents = userOutbox.poll(firstEvents.get(1).txid(), firstEvents.get(1).id(), 2);
+
+        assertEquals(List.of("Ana", "Bob"), firstEvents.stream().map(event -> event.change().getName()).toList());
+        assertEquals(List.of("Carl"), nextEvents.stream().map(event -> event.change().getName()).toList());
+        assertTrue(userOutbox.poll(nextEvents.get(0).txid(), nextEvents.get(0).id(), 2).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return the changes in the order their transactions started, then by id")
+    public void shouldReturnTheChangesInTheOrderTheirTransactionsStartedThenById() {
+        UserEntity late = insert("Ana", 20);
+        UserEntity early = insert("Bob", 30);
+        userOutbox.created(List.of(late, early));
+        jdbcTemplate.update("UPDATE user_events SET txid = 8 WHERE user_uuid = ?", late.getUuid());
+        jdbcTemplate.update("UPDATE user_events SET txid = 7 WHERE user_uuid = ?", early.getUuid());
+
+        List<UserEvent> events = userOutbox.poll(0, 0, 10);
+        UserEvent first = events.get(0);
+
+        assertEquals(List.of("Bob", "Ana"), events.stream().map(event -> event.change().getName()).toList());
+        assertTrue(first.id() > events.get(1).id());
+        assertEquals(List.of("Ana"), userOutbox.poll(first.txid(), first.id(), 10).stream()
+                .map(event -> event.change().getName())
+                .toList());
+    }
+
+    @Test
+    @DisplayName("Should change the version with every change, even a delete followed by a create")
+    public void shouldChangeTheVersionWithEveryChange() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        String emptyVersion = userOutbox.version();
+
+        UserEntity deleted = insert("Ana", 20);
+        userOutbox.created(List.of(deleted));
+        String createdVersion = userOutbox.version();
+
+        userOutbox.deleted(List.of(deleted.getUuid()), now);
+        jdbcTemplate.update("DELETE FROM users WHERE uuid = ?", deleted.getUuid());
+        String deletedVersion = userOutbox.version();
+
+        userOutbox.created(List.of(insert("Bob", 20)));
+
+        assertEquals(4, new HashSet<>(List.of(emptyVersion, createdVersion, deletedVersion, userOutbox.version()))
+                .size());
+    }
+
+    @Test
+    @DisplayName("Should return the deletions after a time and id in that order")
+    public void shouldReturnTheDeletionsAfterATimeAndIdInThatOrder() {
+        UserEntity kept = insert("Ana", 20);
+        UserEntity first = insert(new UUID(0L, 1L), "Bob", 30);
+        UserEntity second = insert(new UUID(0L, 2L), "Carl", 40);
+        LocalDateTime deletedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        userOutbox.created(List.of(kept));
+        userOutbox.deleted(List.of(second.getUuid(), first.getUuid()), deletedAt);
+
+        List<UserTombstone> tombstones = userOutbox.findDeletedAfter(deletedAt.minusSeconds(1), new UUID(0L, 0L),
+                10);
+
+        assertEquals(List.of(new UserTombstone(first.getUuid(), deletedAt),
+                new UserTombstone(second.getUuid(), deletedAt)), tombstones);
+        assertEquals(List.of(new UserTombstone(second.getUuid(), deletedAt)),
+                userOutbox.findDeletedAfter(deletedAt, first.getUuid(), 10));
+    }
+
+    @Test
+    @DisplayName("Should wait for changes until the max wait is over")
+    public void shouldWaitForChangesUntilTheMaxWaitIsOver() {
+        long start = System.nanoTime();
+
+        assertTrue(userOutbox.await(0, 0, 10).join().isEmpty());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofMillis(300)) >= 0);
+    }
+
+    @Test
+    @DisplayName("Should complete a wait as soon as a change is appended")
+    public void shouldCompleteAWaitAsSoonAsAChangeIsAppended() throws Exception {
+        CompletableFuture<List<UserEvent>> events = userOutbox.await(0, 0, 10);
+        userOutbox.created(List.of(insert("Jose", 33)));
+
+        assertEquals(List.of("Jose"), events.get(1, TimeUnit.SECONDS).stream()
+                .map(event -> event.change().getName())
+                .toList());
+    }
+
+    private UserEntity insert(String name, int age) {
+        return insert(UuidV7Generator.next(), name, age);
+    }
+
+    private UserEntity insert(UUID uuid, String name, int age) {
+        LocalDateTime now = LocalDateTime.now();
+        UserEntity userEntity = UserEntity.builder()
+                .uuid(uuid)
+                .name(name)
+                .age(age)
+                .version(0L)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+
+        jdbcTemplate.update("INSERT INTO users (uuid, name, age, version, updated_at, created_at) " +
+                "VALUES (?, ?, ?, 0, ?, ?)", userEntity.getUuid(), name, age, now, now);
+        return userEntity;
+    }
+}
@@ -1,26 +1,66 @@
 package com.josecarloscruz89.msusers.service;
 
+import com.josecarloscruz89.msusers.cache.UserCache;
+import com.josecarloscruz89.msusers.cache.UserCacheProperties;
+import com.josecarloscruz89.msusers.datasource.ReadYourWrites;
+import com.josecarloscruz89.msusers.datasource.RoutingDataSourceProperties;
+import com.josecarloscruz89.msusers.exception.BadRequestException;
 import com.josecarloscruz89.msusers.exception.NotFoundException;
+import com.josecarloscruz89.msusers.exception.PreconditionFailedException;
+import com.josecarloscruz89.msusers.exporter.UserExporter;
+import com.josecarloscruz89.msusers.importer.UserImporter;
+import com.josecarloscruz89.msusers.model.dto.UserChangeResponse;
+import com.josecarloscruz89.msusers.model.dto.UserChangeType;
+import com.josecarloscruz89.msusers.model.dto.UserChangesResponse;
+import com.josecarloscruz89.msusers.model.dto.UserLookupResponse;
+import com.josecarloscruz89.msusers.model.dto.UserPageResponse;
 import com.josecarloscruz89.msusers.model.dto.UserRequest;
 import com.josecarloscruz89.msusers.model.dto.UserResponse;
+import com.josecarloscruz89.msusers.model.dto.UserSearchRequest;
+import com.josecarloscruz89.msusers.model.dto.UserSyncResponse;
 import com.josecarloscruz89.msusers.model.entity.UserEntity;
+import com.josecarloscruz89.msusers.outbox.UserEvent;
+import com.josecarloscruz89.msusers.outbox.UserOutbox;
+import com.josecarloscruz89.msusers.outbox.UserTombstone;
 import com.josecarloscruz89.msusers.repository.UserRepository;
+import com.josecarloscruz89.msusers.repository.UserSearchQuery;
+import com.josecarloscruz89.msusers.repository.UserSearchResult;
+import com.josecarloscruz89.msusers.repository.UserSearchSort;
+import com.josecarloscruz89.msusers.writebehind.UserWriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
@@ -34,14 +74,40 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private UserCache userCache = new UserCache(cacheProperties(false));
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(routingProperties());
+
+    @Mock
+    private UserWriteBehind userWriteBehind;
+
+    @Mock
+    private UserImporter userImporter;
+
+    @Mock
+    private UserExporter userExporter;
+
+    @Mock
+    private UserOutbox userOutbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate();
+
     private final List<UserEntity> entities = new ArrayList<>();
 
     @BeforeEach
     public void setUp() {
+        transactionTemplate.setTransactionManager(transactionManager);
+
         UserEntity userOne = UserEntity.builder()
                 .age(20)
                 .name("Bob")
-                .uuid(UUID.randomUUID().toString())
+                .uuid(UUID.randomUUID())
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
@@ -49,7 +115,7 @@ public class UserServiceTest {
         UserEntity userTwo = UserEntity.builder()
                 .age(30)
                 .name("John")
-                .uuid(UUID.randomUUID().toString())
+                .uuid(UUID.randomUUID())
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
@@ -61,36 +127,115 @@ public class UserServiceTest {
     @Test
     @DisplayName("Should not delete an user by id because it does not exist")
     public void shouldNotDeleteAnUserByIdBecauseItDoesNotExist() {
-        String uuid = UUID.randomUUID().toString();
+        UUID uuid = UUID.randomUUID();
 
-        when(userRepository.findById(uuid))
-                .thenReturn(Optional.empty());
+        when(userRepository.deleteByUuid(uuid))
+                .thenReturn(0);
 
         assertThatCode(() -> userService.deleteUserById(uuid))
                 .doesNotThrowAnyException();
 
-        verify(userRepository, times(1)).findById(uuid);
-        verify(userRepository, times(0)).delete(any(UserEntity.class));
+        verify(userRepository, times(1)).deleteByUuid(uuid);
         verifyNoMoreInteractions(userRepository);
     }
     @Test
     @DisplayName("Should delete an user by id")
     public void shouldDeleteAnUserById() {
-        String uuid = UUID.randomUUID().toString();
-
-        UserEntity userEntity = entities.get(0);
+        UUID uuid = UUID.randomUUID();
 
-        when(userRepository.findById(uuid))
-                .thenReturn(Optional.of(userEntity));
+        when(userRepository.deleteByUuid(uuid))
+                .thenReturn(1);
 
         assertThatCode(() -> userService.deleteUserById(uuid))
                 .doesNotThrowAnyException();
 
-        verify(userRepository, times(1)).findById(uuid);
-        verify(userRepository, times(1)).delete(any(UserEntity.class));
+        verify(userOutbox, times(1)).deleted(eq(List.of(uuid)), any(LocalDateTime.class));
+        verify(userRepository, times(1)).deleteByUuid(uuid);
+        verify(userCache, times(1)).invalidate(uuid);
         verifyNoMoreInteractions(userRepository);
     }
 
+    @Test
+    @DisplayName("Should delete users by ids in a single statement")
+    public void shouldDeleteUsersByIds() {
+        UUID uuid = UUID.randomUUID();
+        UUID anotherUuid = UUID.randomUUID();
+
+        when(userRepository.deleteByUuidIn(Set.of(uuid, anotherUuid)))
+                .thenReturn(2);
+
+        assertThatCode(() -> userService.deleteUsersByIds(List.of(uuid, anotherUuid, uuid)))
+                .doesNotThrowAnyException();
+
+        verify(userOutbox, times(1)).deleted(eq(Set.of(uuid, anotherUuid)), any(LocalDateTime.class));
+        verify(userRepository, times(1)).deleteByUuidIn(Set.of(uuid, anotherUuid));
+        verify(userCache, times(1)).invalidate(uuid);
+        verify(userCache, times(1)).invalidate(anotherUuid);
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw a BadRequestException when there are no ids to delete")
+    public void shouldThrowABadRequestExceptionWhenThereAreNoIdsToDelete() {
+        assertThrows(BadRequestException.class, () -> userService.deleteUsersByIds(List.of()));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should look up users in request order and report the missing ids")
+    public void shouldLookUpUsersInRequestOrder() {
+        UserResponse bob = UserResponse.valueOf(entities.get(0));
+        UserResponse john = UserResponse.valueOf(entities.get(1));
+        UUID missingId = UUID.randomUUID();
+
+        given(userRepository.findAllByUuidIn(Set.of(bob.getUuid(), john.getUuid(), missingId)))
+                .willReturn(List.of(bob, john));
+
+        UserLookupResponse userLookupResponse = userService.lookupUsers(
+                List.of(john.getUuid(), missingId, bob.getUuid(), john.getUuid()));
+
+        assertEquals(List.of(john, bob), userLookupResponse.getUsers());
+        assertEquals(List.of(missingId), userLookupResponse.getMissingIds());
+
+        verify(userRepository, times(1)).findAllByUuidIn(Set.of(bob.getUuid(), john.getUuid(), missingId));
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should only query the users that are not cached when looking up users")
+    public void shouldOnlyQueryUncachedUsersWhenLookingUpUsers() {
+        UserEntity bob = entities.get(0);
+        UserResponse john = UserResponse.valueOf(entities.get(1));
+
+        given(userRepository.findResponseByUuid(bob.getUuid()))
+                .willReturn(Optional.of(UserResponse.valueOf(bob)));
+        given(userRepository.findAllByUuidIn(Set.of(john.getUuid())))
+                .willReturn(List.of(john));
+
+        userService.getUserById(bob.getUuid());
+        UserLookupResponse userLookupResponse = userService.lookupUsers(List.of(bob.getUuid(), john.getUuid()));
+
+        assertEquals(List.of(UserResponse.valueOf(bob), john), userLookupResponse.getUsers());
+        assertEquals(0, userLookupResponse.getMissingIds().size());
+
+        verify(userRepository, times(1)).findResponseByUuid(bob.getUuid());
+        verify(userRepository, times(1)).findAllByUuidIn(Set.of(john.getUuid()));
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw a BadRequestException when there are too many ids to look up")
+    public void shouldThrowABadRequestExceptionWhenThereAreTooManyIdsToLookUp() {
+        List<UUID> userIds = Stream.generate(UUID::randomUUID)
+                .limit(UserService.MAX_LOOKUP_IDS + 1)
+                .toList();
+
+        assertThrows(BadRequestException.class, () -> userService.lookupUsers(userIds));
+
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     @DisplayName("Should not partial update an user due to a Not Found Exception")
     public void shouldNotPartialUpdateAnUserDueToNotFoundException() {
@@ -98,16 +243,16 @@ public class UserServiceTest {
                 .name("Jose")
                 .build();
 
-        String uuid = UUID.randomUUID().toString();
+        UUID uuid = UUID.randomUUID();
 
-        when(userRepository.findById(uuid))
-                .thenReturn(Optional.empty());
+        when(userRepository.partialUpdate(eq(uuid), isNull(), eq("Jose"), isNull(), any(LocalDateTime.class)))
+                .thenReturn(0);
 
-        assertThrows(NotFoundException.class, () -> userService.partialUpdateUser(userRequest, uuid));
-
-        verify(userRepository, times(1)).findById(uuid);
-        verify(userRepository, times(0)).save(any(UserEntity.class));
+        assertThrows(NotFoundException.class, () -> userService.partialUpdateUser(userRequest, uuid, null));
 
+        verify(userRepository, times(1))
+                .partialUpdate(eq(uuid), isNull(), eq("Jose"), isNull(), any(LocalDateTime.class));
+        verify(userCache, times(0)).invalidate(uuid);
         verifyNoMoreInteractions(userRepository);
     }
 
@@ -118,18 +263,17 @@ public class UserServiceTest {
                 .name("Jose")
                 .build();
 
-        UserEntity userEntity = entities.get(0);
-
-        String uuid = UUID.randomUUID().toString();
+        UUID uuid = UUID.randomUUID();
 
-        when(userRepository.findById(uuid))
-                .thenReturn(Optional.of(userEntity));
+        when(userRepository.partialUpdate(eq(uuid), isNull(), eq("Jose"), isNull(), any(LocalDateTime.class)))
+                .thenReturn(1);
 
-        assertThatCode(() -> userService.partialUpdateUser(userRequest, uuid))
+        assertThatCode(() -> userService.partialUpdateUser(userRequest, uuid, null))
                 .doesNotThrowAnyException();
 
-        verify(userRepository, times(1)).findById(uuid);
-        verify(userRepository, times(1)).save(any(UserEntity.class));
+        verify(userRepository, times(1))
+                .partialUpdate(eq(uuid), isNull(), eq("Jose"), isNull(), any(LocalDateTime.class));
+        verify(userCache, times(1)).invalidate(uuid);
         verifyNoMoreInteractions(userRepository);
     }
 
@@ -146,11 +290,103 @@ public class UserServiceTest {
         given(userRepository.save(any(UserEntity.class)))
                 .willReturn(userEntity);
 
-        String userCreatedUuid = userService.createUser(userRequest);
+        UUID userCreatedUuid = userService.createUser(userRequest);
 
         assertThat(userCreatedUuid)
                 .isNotNull()
                 .isEqualTo(userEntity.getUuid());
+
+        verify(userOutbox, times(1)).created(List.of(userEntity));
+    }
+
+    @Test
+    @DisplayName("Should queue a new user with its id assigned when write-behind is enabled")
+    public void shouldQueueANewUserWithItsIdAssignedWhenWriteBehindIsEnabled() {
+        UserRequest userRequest = UserRequest.builder()
+                .name("Jose")
+                .age(33)
+                .build();
+
+        given(userWriteBehind.isEnabled())
+                .willReturn(true);
+
+        UUID userCreatedUuid = userService.createUser(userRequest);
+
+        verify(userWriteBehind, times(1)).enqueue(argThat(userEntity ->
+                userCreatedUuid.equals(userEntity.getUuid()) &&
+                        "Jose".equals(userEntity.getName()) &&
+                        userEntity.getCreatedAt() != null));
+        verify(readYourWrites, times(1)).written(userCreatedUuid);
+        verifyNoInteractions(userRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should create users in batch keeping the request order")
+    public void shouldCreateUsersInBatch() {
+        List<UserRequest> userRequests = List.of(
+                UserRequest.builder().name("Bob").age(20).build(),
+                UserRequest.builder().name("John").age(30).build());
+
+        given(userRepository.saveAll(anyList()))
+                .willReturn(entities);
+
+        List<UUID> createdUuids = userService.createUsers(userRequests);
+
+        assertEquals(List.of(entities.get(0).getUuid(), entities.get(1).getUuid()), createdUuids);
+
+        verify(userRepository, times(1)).saveAll(anyList());
+        verify(userOutbox, times(1)).created(entities);
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should return the changes after the cursor with the cursor of the last one")
+    public void shouldReturnTheChangesAfterTheCursorWithTheCursorOfTheLastOne() {
+        UUID uuid = UUID.randomUUID();
+        UserChangeResponse created = UserChangeResponse.builder()
+                .type(UserChangeType.CREATED)
+                .uuid(uuid)
+                .name("Jose")
+                .age(33)
+                .version(0L)
+                .build();
+        UserChangeResponse deleted = UserChangeResponse.builder()
+                .type(UserChangeType.DELETED)
+                .uuid(uuid)
+                .version(0L)
+                .build();
+
+        given(userOutbox.maxBatchSize())
+                .willReturn(500);
+        given(userOutbox.poll(0L, 0L, 2))
+                .willReturn(List.of(new UserEvent(3L, 7L, created), new UserEvent(4L, 9L, deleted)));
+
+        UserChangesResponse userChangesResponse = userService.getChanges(null, 2);
+
+        assertEquals(List.of(created, deleted), userChangesResponse.getChanges());
+
+        given(userOutbox.await(4L, 9L, 2))
+                .willReturn(CompletableFuture.completedFuture(List.of()));
+
+        UserChangesResponse nextChangesResponse = userService.awaitChanges(userChangesResponse.getNextCursor(), 2)
+                .join();
+
+        assertTrue(nextChangesResponse.getChanges().isEmpty());
+        assertEquals(userChangesResponse.getNextCursor(), nextChangesResponse.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should throw a BadRequestException when the changes limit is out of range")
+    public void shouldThrowABadRequestExceptionWhenTheChangesLimitIsOutOfRange() {
+        given(userOutbox.maxBatchSize())
+                .willReturn(500);
+
+        assertThrows(BadRequestException.class, () -> userService.getChanges(null, 501));
+        assertThrows(BadRequestException.class, () -> userService.getChanges(null, 0));
+        assertThrows(BadRequestException.class, () -> userService.awaitChanges("not a cursor", 10));
+
+        verify(userOutbox, never()).poll(anyLong(), anyLong(), anyInt());
+        verify(userOutbox, never()).await(anyLong(), anyLong(), anyInt());
     }
 
     @Test
@@ -161,16 +397,17 @@ public class UserServiceTest {
                 .age(33)
                 .build();
 
-        String invalidUserId = "123";
+        UUID invalidUserId = UUID.randomUUID();
 
-        when(userRepository.findById(invalidUserId))
-                .thenReturn(Optional.empty());
+        when(userRepository.updateNameAndAge(eq(invalidUserId), isNull(), eq("Jose"), eq(33), any(LocalDateTime.class)))
+                .thenReturn(0);
 
-        assertThrows(NotFoundException.class, () -> userService.updateUser(userRequest, invalidUserId));
+        assertThrows(NotFoundException.class, () -> userService.updateUser(userRequest, invalidUserId, null));
 
-        verify(userRepository, times(0)).save(any(UserEntity.class));
-        verify(userRepository, times(1)).findById(invalidUserId);
+        verify(userRepository, times(1))
+                .updateNameAndAge(eq(invalidUserId), isNull(), eq("Jose"), eq(33), any(LocalDateTime.class));
         verifyNoMoreInteractions(userRepository);
+        verifyNoInteractions(userOutbox);
     }
 
     @Test
@@ -181,31 +418,80 @@ public class UserServiceTest {
                 .age(33)
                 .build();
 
-        UserEntity userEntity = entities.get(0);
-        String userId = userEntity.getUuid();
+        UUID userId = entities.get(0).getUuid();
 
-        when(userRepository.findById(userId))
-                .thenReturn(Optional.of(userEntity));
+        when(userRepository.updateNameAndAge(eq(userId), isNull(), eq("Jose"), eq(33), any(LocalDateTime.class)))
+                .thenReturn(1);
 
-        assertThatCode(() -> userService.updateUser(userRequest, userId))
+        assertThatCode(() -> userService.updateUser(userRequest, userId, null))
                 .doesNotThrowAnyException();
 
-        verify(userRepository, times(1)).save(any(UserEntity.class));
-        verify(userRepository, times(1)).findById(userId);
+        verify(userRepository, times(1))
+                .updateNameAndAge(eq(userId), isNull(), eq("Jose"), eq(33), any(LocalDateTime.class));
+        verify(userOutbox, times(1)).updated(eq(List.of(userId)), any(LocalDateTime.class));
+        verify(userCache, times(1)).invalidate(userId);
+        verify(readYourWrites, times(1)).written(userId);
         verifyNoMoreInteractions(userRepository);
     }
 
+    @Test
+    @DisplayName("Should throw a PreconditionFailedException when the user changed since the expected version")
+    public void shouldThrowAPreconditionFailedExceptionWhenTheUserChangedSinceTheExpectedVersion() {
+        UserRequest userRequest = UserRequest.builder()
+                .name("Jose")
+                .age(33)
+                .build();
+
+        UUID userId = entities.get(0).getUuid();
+
+        when(userRepository.updateNameAndAge(eq(userId), eq(3L), eq("Jose"), eq(33), any(LocalDateTime.class)))
+                .thenReturn(0);
+        when(userRepository.existsById(userId))
+                .thenReturn(true);
+
+        assertThrows(PreconditionFailedException.class, () -> userService.updateUser(userRequest, userId, 3L));
+
+        verify(userCache, times(0)).invalidate(userId);
+    }
+
+    @Test
+    @DisplayName("Should throw a NotFoundException when a versioned update targets a user that does not exist")
+    public void shouldThrowANotFoundExceptionWhenAVersionedUpdateTargetsAUserThatDoesNotExist() {
+        UserRequest userRequest = UserRequest.builder()
+                .name("Jose")
+                .build();
+
+        UUID userId = UUID.randomUUID();
+
+        when(userRepository.partialUpdate(eq(userId), eq(3L), eq("Jose"), isNull(), any(LocalDateTime.class)))
+                .thenReturn(0);
+        when(userRepository.existsById(userId))
+                .thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> userService.partialUpdateUser(userRequest, userId, 3L));
+    }
+
+    @Test
+    @DisplayName("Should take the users version from the outbox")
+    public void shouldTakeTheUsersVersionFromTheOutbox() {
+        given(userOutbox.version())
+                .willReturn("7-2");
+
+        assertEquals("7-2", userService.getUsersVersion());
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     @DisplayName("Should throw a NotFoundException due to userId does not exist")
     public void shouldThrowANotFoundExceptionWhenGetUserById() {
-        String invalidId = "123";
+        UUID invalidId = UUID.randomUUID();
 
-        given(userRepository.findById(invalidId))
+        given(userRepository.findResponseByUuid(invalidId))
                 .willReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> userService.getUserById(invalidId));
 
-        verify(userRepository, times(1)).findById(invalidId);
+        verify(userRepository, times(1)).findResponseByUuid(invalidId);
         verifyNoMoreInteractions(userRepository);
     }
 
@@ -214,8 +500,8 @@ public class UserServiceTest {
     public void shouldReturnAnUserById() {
         UserEntity userEntity = entities.get(0);
 
-        given(userRepository.findById(userEntity.getUuid()))
-                .willReturn(Optional.of(userEntity));
+        given(userRepository.findResponseByUuid(userEntity.getUuid()))
+                .willReturn(Optional.of(UserResponse.valueOf(userEntity)));
 
         UserResponse userResponse = userService.getUserById(userEntity.getUuid());
 
@@ -224,42 +510,393 @@ public class UserServiceTest {
         assertEquals(userResponse.getName(), userEntity.getName());
         assertEquals(userResponse.getAge(), userEntity.getAge());
 
-        verify(userRepository, times(1)).findById(userEntity.getUuid());
+        verify(userRepository, times(1)).findResponseByUuid(userEntity.getUuid());
         verifyNoMoreInteractions(userRepository);
     }
 
     @Test
-    @DisplayName("Should return a list with all users")
-    public void shouldReturnAListWithAllUsers() {
-        //given
-        given(userRepository.findAll())
-                .willReturn(entities);
+    @DisplayName("Should serve a repeated user lookup from the cache")
+    public void shouldServeARepeatedUserLookupFromTheCache() {
+        UserEntity userEntity = entities.get(0);
+
+        given(userRepository.findResponseByUuid(userEntity.getUuid()))
+                .willReturn(Optional.of(UserResponse.valueOf(userEntity)));
+
+        UserResponse first = userService.getUserById(userEntity.getUuid());
+        UserResponse second = userService.getUserById(userEntity.getUuid());
+
+        assertEquals(first, second);
+        assertEquals(1, userCache.stats().hitCount());
+        assertEquals(1, userCache.stats().missCount());
+
+        verify(userRepository, times(1)).findResponseByUuid(userEntity.getUuid());
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should share a single repository load between concurrent lookups of the same user")
+    public void shouldShareASingleLoadBetweenConcurrentLookupsOfTheSameUser() throws Exception {
+        UserEntity userEntity = entities.get(0);
+        UUID userId = userEntity.getUuid();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        userCache.bindTo(meterRegistry);
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(userRepository.findResponseByUuid(userId)).willAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Optional.of(UserResponse.valueOf(userEntity));
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<UserResponse>> lookups = new ArrayList<>();
+            lookups.add(executor.submit(() -> userService.getUserById(userId)));
+            loading.await();
+            for (int i = 0; i < 9; i++) {
+                lookups.add(executor.submit(() -> userService.getUserById(userId)));
+            }
+            while (meterRegistry.get("users.cache.loads.coalesced").functionCounter().count() < 9) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<UserResponse> lookup : lookups) {
+                assertEquals(userId, lookup.get(5, TimeUnit.SECONDS).getUuid());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, meterRegistry.get("users.cache.loads").functionCounter().count());
+        verify(userRepository, times(1)).findResponseByUuid(userId);
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should reload a user from the repository after it was updated")
+    public void shouldReloadAUserAfterItWasUpdated() {
+        UserEntity userEntity = entities.get(0);
+        UUID userId = userEntity.getUuid();
+
+        given(userRepository.findResponseByUuid(userId))
+                .willReturn(Optional.of(UserResponse.valueOf(userEntity)));
+        given(userRepository.partialUpdate(eq(userId), isNull(), eq("Jose"), isNull(), any(LocalDateTime.class)))
+                .willReturn(1);
+
+        userService.getUserById(userId);
+        userService.partialUpdateUser(UserRequest.builder().name("Jose").build(), userId, null);
+        userService.getUserById(userId);
+
+        verify(userRepository, times(2)).findResponseByUuid(userId);
+        verify(userCache, times(1)).invalidate(userId);
+    }
+
+    @Test
+    @DisplayName("Should drop a user cached before an update commits once the transaction completes")
+    public void shouldDropAUserCachedBeforeAnUpdateCommitsOnceTheTransactionCompletes() {
+        UserEntity userEntity = entities.get(0);
+        UUID userId = userEntity.getUuid();
+
+        given(userRepository.findResponseByUuid(userId))
+                .willReturn(Optional.of(UserResponse.valueOf(userEntity)));
+        given(userRepository.partialUpdate(eq(userId), isNull(), eq("Jose"), isNull(), any(LocalDateTime.class)))
+                .willReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userService.partialUpdateUser(UserRequest.builder().name("Jose").build(), userId, null);
+            userService.getUserById(userId);
+            userService.getUserById(userId);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(
+                            TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        userService.getUserById(userId);
+
+        verify(userRepository, times(2)).findResponseByUuid(userId);
+    }
+
+    @Test
+    @DisplayName("Should not cache the users of a lookup that were invalidated while it loaded them")
+    public void shouldNotCacheTheUsersOfALookupThatWereInvalidatedWhileItLoadedThem() {
+        UserEntity userEntity = entities.get(0);
+        UUID userId = userEntity.getUuid();
+
+        given(userRepository.findAllByUuidIn(Set.of(userId))).willAnswer(invocation -> {
+            userCache.invalidate(userId);
+            return List.of(UserResponse.valueOf(userEntity));
+        }).willReturn(List.of(UserResponse.valueOf(userEntity)));
+
+        userService.lookupUsers(List.of(userId));
+        userService.lookupUsers(List.of(userId));
+        userService.lookupUsers(List.of(userId));
+
+        verify(userRepository, times(2)).findAllByUuidIn(Set.of(userId));
+    }
 
+    @Test
+    @DisplayName("Should not cache not found users unless the negative cache is enabled")
+    public void shouldNotCacheNotFoundUsersUnlessNegativeCacheIsEnabled() {
+        UUID invalidId = UUID.randomUUID();
+
+        given(userRepository.findResponseByUuid(invalidId))
+                .willReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> userService.getUserById(invalidId));
+        assertThrows(NotFoundException.class, () -> userService.getUserById(invalidId));
+
+        verify(userRepository, times(2)).findResponseByUuid(invalidId);
+
+        UserService negativeCachingUserService = new UserService(userRepository, new UserCache(cacheProperties(true)),
+                readYourWrites, userWriteBehind, userImporter,
+                userExporter, userOutbox, transactionTemplate);
+
+        assertThrows(NotFoundException.class, () -> negativeCachingUserService.getUserById(invalidId));
+        assertThrows(NotFoundException.class, () -> negativeCachingUserService.getUserById(invalidId));
+
+        verify(userRepository, times(3)).findResponseByUuid(invalidId);
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should stream all users")
+    public void shouldStreamAllUsers() {
+        //given
         List<UserResponse> entitiesConverted = entities.stream()
                 .map(UserResponse::valueOf)
                 .collect(Collectors.toList());
 
+        given(userRepository.streamAll())
+                .willReturn(entitiesConverted.stream());
+
         //when
-        List<UserResponse> userResponses = userService.getAllUsers();
+        List<UserResponse> userResponses = new ArrayList<>();
+        userService.streamAllUsers(userResponses::add);
 
         //then
         assertEquals(entitiesConverted, userResponses);
 
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).streamAll();
         verifyNoMoreInteractions(userRepository);
     }
 
     @Test
-    @DisplayName("Should return an empty list")
-    public void shouldReturnAnEmptyList() {
-        given(userRepository.findAll())
-                .willReturn(Collections.emptyList());
+    @DisplayName("Should stream nothing when there are no users")
+    public void shouldStreamNothingWhenThereAreNoUsers() {
+        given(userRepository.streamAll())
+                .willReturn(Stream.empty());
 
-        List<UserResponse> userResponses = userService.getAllUsers();
+        List<UserResponse> userResponses = new ArrayList<>();
+        userService.streamAllUsers(userResponses::add);
 
         assertEquals(userResponses.size(), 0);
 
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).streamAll();
         verifyNoMoreInteractions(userRepository);
     }
+
+    @Test
+    @DisplayName("Should return a full page with a cursor to the next one")
+    public void shouldReturnAFullPageWithNextCursor() {
+        List<UserResponse> page = entities.stream()
+                .map(UserResponse::valueOf)
+                .collect(Collectors.toList());
+
+        given(userRepository.findPageAfter(new UUID(0L, 0L), 2))
+                .willReturn(page);
+
+        UserPageResponse firstPage = userService.getUsersPage(null, 2);
+
+        assertEquals(page, firstPage.getUsers());
+        assertNotNull(firstPage.getNextCursor());
+
+        given(userRepository.findPageAfter(entities.get(1).getUuid(), 2))
+                .willReturn(Collections.emptyList());
+
+        UserPageResponse secondPage = userService.getUsersPage(firstPage.getNextCursor(), 2);
+
+        assertEquals(0, secondPage.getUsers().size());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should not return a next cursor when the page is not full")
+    public void shouldNotReturnNextCursorWhenPageIsNotFull() {
+        List<UserResponse> page = entities.stream()
+                .map(UserResponse::valueOf)
+                .collect(Collectors.toList());
+
+        given(userRepository.findPageAfter(new UUID(0L, 0L), 10))
+                .willReturn(page);
+
+        UserPageResponse userPageResponse = userService.getUsersPage(null, 10);
+
+        assertEquals(page, userPageResponse.getUsers());
+        assertNull(userPageResponse.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should throw a BadRequestException when the limit is out of range")
+    public void shouldThrowABadRequestExceptionWhenLimitIsOutOfRange() {
+        assertThrows(BadRequestException.class, () -> userService.getUsersPage(null, 0));
+        assertThrows(BadRequestException.class, () -> userService.getUsersPage(null, UserService.MAX_PAGE_SIZE + 1));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw a BadRequestException when the cursor is invalid")
+    public void shouldThrowABadRequestExceptionWhenCursorIsInvalid() {
+        assertThrows(BadRequestException.class, () -> userService.getUsersPage("not a cursor!", 10));
+        assertThrows(BadRequestException.class, () -> userService.getUsersPage("AAAA", 10));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should search users and continue after the last user of the previous page")
+    public void shouldSearchUsersAndContinueAfterTheLastUserOfThePreviousPage() {
+        UserEntity last = entities.get(1);
+        List<UserSearchResult> page = entities.stream()
+                .map(entity -> new UserSearchResult(UserResponse.valueOf(entity), entity.getUpdatedAt()))
+                .collect(Collectors.toList());
+
+        given(userRepository.search(new UserSearchQuery("jo", 18, 40, UserSearchSort.UPDATED_AT, true,
+                null, null, 2)))
+                .willReturn(page);
+
+        UserSearchRequest userSearchRequest = UserSearchRequest.builder()
+                .name("jo")
+                .minAge(18)
+                .maxAge(40)
+                .sort("updatedAt")
+                .direction("desc")
+                .limit(2)
+                .build();
+
+        UserPageResponse firstPage = userService.searchUsers(userSearchRequest);
+
+        assertEquals(List.of(UserResponse.valueOf(entities.get(0)), UserResponse.valueOf(last)), firstPage.getUsers());
+        assertNotNull(firstPage.getNextCursor());
+
+        given(userRepository.search(new UserSearchQuery("jo", 18, 40, UserSearchSort.UPDATED_AT, true,
+                last.getUpdatedAt(), last.getUuid(), 2)))
+                .willReturn(Collections.emptyList());
+
+        userSearchRequest.setCursor(firstPage.getNextCursor());
+        UserPageResponse secondPage = userService.searchUsers(userSearchRequest);
+
+        assertEquals(0, secondPage.getUsers().size());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should sync the users updated and deleted since a time in change order")
+    public void shouldSyncTheUsersUpdatedAndDeletedSinceATimeInChangeOrder() {
+        LocalDateTime since = LocalDateTime.of(2024, 1, 1, 0, 0);
+        UUID firstUuid = UUID.fromString("01900000-0000-7000-8000-000000000001");
+        UUID deletedUuid = UUID.fromString("01900000-0000-7000-8000-000000000002");
+        UUID lastUuid = UUID.fromString("01900000-0000-7000-8000-000000000003");
+        UserResponse first = new UserResponse(firstUuid, "Bob", 20, 1L, since.plusSeconds(1));
+        UserResponse last = new UserResponse(lastUuid, "John", 30, 0L, since.plusSeconds(2));
+        UserTombstone tombstone = new UserTombstone(deletedUuid, since.plusSeconds(1));
+
+        given(userRepository.findUpdatedAfter(since, new UUID(0L, 0L), 2))
+                .willReturn(List.of(first, last));
+        given(userOutbox.findDeletedAfter(since, new UUID(0L, 0L), 2))
+                .willReturn(List.of(tombstone));
+
+        UserSyncResponse firstPage = userService.syncUsers(since, null, 2);
+
+        assertEquals(List.of(first), firstPage.getUsers());
+        assertEquals(List.of(deletedUuid), firstPage.getDeletedIds());
+
+        given(userRepository.findUpdatedAfter(since.plusSeconds(1), deletedUuid, 2))
+                .willReturn(List.of(last));
+        given(userOutbox.findDeletedAfter(since.plusSeconds(1), deletedUuid, 2))
+                .willReturn(List.of());
+
+        UserSyncResponse secondPage = userService.syncUsers(since, firstPage.getNextCursor(), 2);
+
+        assertEquals(List.of(last), secondPage.getUsers());
+        assertEquals(List.of(), secondPage.getDeletedIds());
+
+        given(userRepository.findUpdatedAfter(since.plusSeconds(2), lastUuid, 2))
+                .willReturn(List.of());
+        given(userOutbox.findDeletedAfter(since.plusSeconds(2), lastUuid, 2))
+                .willReturn(List.of());
+
+        UserSyncResponse caughtUp = userService.syncUsers(since, secondPage.getNextCursor(), 2);
+
+        assertEquals(0, caughtUp.getUsers().size() + caughtUp.getDeletedIds().size());
+        assertEquals(secondPage.getNextCursor(), caughtUp.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should throw a BadRequestException when the sync is invalid")
+    public void shouldThrowABadRequestExceptionWhenTheSyncIsInvalid() {
+        LocalDateTime since = LocalDateTime.now();
+
+        assertThrows(BadRequestException.class, () -> userService.syncUsers(since, null, 0));
+        assertThrows(BadRequestException.class,
+                () -> userService.syncUsers(since, null, UserService.MAX_PAGE_SIZE + 1));
+        assertThrows(BadRequestException.class, () -> userService.syncUsers(since, "AAAA", 10));
+
+        verifyNoInteractions(userRepository, userOutbox);
+    }
+
+    @Test
+    @DisplayName("Should search all users by creation time when no filter is given")
+    public void shouldSearchAllUsersByCreationTimeWhenNoFilterIsGiven() {
+        given(userRepository.search(new UserSearchQuery(null, null, null, UserSearchSort.CREATED_AT, false,
+                null, null, UserService.DEFAULT_SEARCH_LIMIT)))
+                .willReturn(Collections.emptyList());
+
+        UserPageResponse userPageResponse = userService.searchUsers(UserSearchRequest.builder()
+                .name(" ")
+                .build());
+
+        assertEquals(0, userPageResponse.getUsers().size());
+        assertNull(userPageResponse.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should throw a BadRequestException when the search is invalid")
+    public void shouldThrowABadRequestExceptionWhenTheSearchIsInvalid() {
+        assertThrows(BadRequestException.class, () -> userService.searchUsers(UserSearchRequest.builder()
+                .limit(UserService.MAX_PAGE_SIZE + 1)
+                .build()));
+        assertThrows(BadRequestException.class, () -> userService.searchUsers(UserSearchRequest.builder()
+                .minAge(30)
+                .maxAge(20)
+                .build()));
+        assertThrows(BadRequestException.class, () -> userService.searchUsers(UserSearchRequest.builder()
+                .minAge(-1)
+                .build()));
+        assertThrows(BadRequestException.class, () -> userService.searchUsers(UserSearchRequest.builder()
+                .sort("name")
+                .build()));
+        assertThrows(BadRequestException.class, () -> userService.searchUsers(UserSearchRequest.builder()
+                .direction("up")
+                .build()));
+        assertThrows(BadRequestException.class, () -> userService.searchUsers(UserSearchRequest.builder()
+                .cursor("AAAAAAAAAAAAAAAAAAAAAA")
+                .build()));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    private static RoutingDataSourceProperties routingProperties() {
+        return new RoutingDataSourceProperties(true, List.of(), Duration.ofSeconds(10), Duration.ofSeconds(5),
+                RoutingDataSourceProperties.POSTGRES_LAG_QUERY, Duration.ofSeconds(5));
+    }
+
+    private static UserCacheProperties cacheProperties(boolean negativeCacheEnabled) {
+        return new UserCacheProperties(100, Duration.ofMinutes(5), negativeCacheEnabled, Duration.ofSeconds(30));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.josecarloscruz89.msusers.validation.constraint;
+
+import com.josecarloscruz89.msusers.validation.annotation.ValidName;
+import com.josecarloscruz89.msusers.validation.annotation.ValidName.CharacterClass;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Valid Name Validator Tests")
+public class ValidNameValidatorTest {
+
+    private final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+
+    private final Validator validator = validatorFactory.getValidator();
+
+    @AfterEach
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    @DisplayName("Should name the character classes that are not allowed")
+    public void shouldNameTheCharacterClassesThatAreNotAllowed() {
+        assertEquals(List.of("The field name shouldn't accept numbers"), messages(new DefaultName("Jose 2")));
+        assertEquals(List.of("The field name shouldn't accept numbers or symbols"),
+                messages(new LettersAndWhitespaceName("Jose-Carlos")));
+        assertEquals(List.of("The field name shouldn't accept numbers, whitespace or symbols"),
+                messages(new LettersName("Jose Carlos")));
+        assertTrue(messages(new LettersAndWhitespaceName("Jose Carlos")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should report the configured message instead of the generated one")
+    public void shouldReportTheConfiguredMessageInsteadOfTheGeneratedOne() {
+        assertEquals(List.of("Only letters, please"), messages(new CustomMessageName("Jose 2")));
+    }
+
+    private List<String> messages(Object name) {
+        return validator.validate(name).stream()
+                .map(ConstraintViolation::getMessage)
+                .toList();
+    }
+
+    private record DefaultName(@ValidName String name) {
+    }
+
+    private record LettersAndWhitespaceName(
+            @ValidName(allowed = {CharacterClass.LETTER, CharacterClass.WHITESPACE}) String name) {
+    }
+
+    private record LettersName(@ValidName(allowed = CharacterClass.LETTER) String name) {
+    }
+
+    private record CustomMessageName(
+            @ValidName(allowed = CharacterClass.LETTER, message = "Only letters, please") String name) {
+    }
+}
@@ -0,0 +1,198 @@
+package com.josecarloscruz89.msusers.writebehind;
+
+import com.josecarloscruz89.msusers.cache.UserCache;
+import com.josecarloscruz89.msusers.cache.UserCacheProperties;
+import com.josecarloscruz89.msusers.exception.ServiceUnavailableException;
+import com.josecarloscruz89.msusers.model.entity.UserEntity;
+import com.josecarloscruz89.msusers.model.entity.UuidV7Generator;
+import com.josecarloscruz89.msusers.outbox.ChangeFeedProperties;
+import com.josecarloscruz89.msusers.outbox.UserOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("User Write Behind Tests")
+public class UserWriteBehindTest {
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:write-behind;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.execute("CREATE TABLE users (uuid UUID PRIMARY KEY, name VARCHAR(50) NOT NULL, age INTEGER, " +
+                "version BIGINT NOT NULL DEFAULT 0, updated_at TIMESTAMP NOT NULL, created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE user_events (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "user_uuid UUID NOT NULL, type VARCHAR(10) NOT NULL, name VARCHAR(50), age INTEGER, " +
+                "version BIGINT, occurred_at TIMESTAMP NOT NULL, txid BIGINT NOT NULL DEFAULT 0)");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.execute("DROP TABLE users");
+        jdbcTemplate.execute("DROP TABLE user_events");
+    }
+
+    @Test
+    @DisplayName("Should insert every queued user and empty the spill file")
+    public void shouldInsertEveryQueuedUserAndEmptyTheSpillFile() throws Exception {
+        UserWriteBehind userWriteBehind = userWriteBehind(10_000);
+        userWriteBehind.start();
+
+        IntStream.range(0, 1200).forEach(index -> userWriteBehind.enqueue(user("User " + index)));
+        userWriteBehind.stop();
+
+        assertEquals(1200, countUsers());
+        assertEquals(1200, countEvents());
+        assertEquals(0, countSpillFiles());
+        assertEquals(1200, meterRegistry.get("users.write_behind.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    @DisplayName("Should replay only the users left in the spill file that were never inserted")
+    public void shouldReplayOnlyTheUsersLeftInTheSpillFileThatWereNeverInserted() throws Exception {
+        UserEntity inserted = user("Inserted");
+        UserEntity deleted = user("Deleted");
+        UserEntity pending = user("Pending");
+
+        try (SpillFile file = new SpillFile(spillFile(), 2, false)) {
+            file.append(inserted);
+            file.append(deleted);
+            file.append(pending);
+        }
+        Files.writeString(spillFile().resolveSibling("users-write-behind.log.1"), "0191",
+                StandardOpenOption.APPEND);
+
+        UserOutbox userOutbox = userOutbox();
+        jdbcTemplate.update(UserWriteBehind.INSERT_USER, inserted.getUuid(), inserted.getName(), inserted.getAge(),
+                inserted.getUpdatedAt(), inserted.getCreatedAt());
+        userOutbox.created(List.of(inserted, deleted));
+        userOutbox.deleted(List.of(deleted.getUuid()), LocalDateTime.now());
+        userOutbox.destroy();
+
+        UserWriteBehind userWriteBehind = userWriteBehind(10);
+        userWriteBehind.start();
+        userWriteBehind.stop();
+
+        assertEquals(List.of("Inserted", "Pending"), jdbcTemplate.queryForList("SELECT name FROM users ORDER BY name",
+                String.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM user_events WHERE user_uuid = ?",
+                Integer.class, pending.getUuid()));
+        assertEquals(0, countSpillFiles());
+    }
+
+    @Test
+    @DisplayName("Should keep only the users still waiting in the spill file")
+    public void shouldKeepOnlyTheUsersStillWaitingInTheSpillFile() throws Exception {
+        try (SpillFile file = new SpillFile(spillFile(), 2, false)) {
+            List<Long> sequences = new ArrayList<>();
+            for (int index = 0; index < 5; index++) {
+                sequences.add(file.append(user("User " + index)));
+            }
+            file.release(sequences.subList(0, 3));
+
+            assertEquals(2, countSpillFiles());
+
+            file.release(sequences.subList(3, 5));
+            assertEquals(0, countSpillFiles());
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop the users the database refuses and insert the rest of the batch")
+    public void shouldDropTheUsersTheDatabaseRefusesAndInsertTheRestOfTheBatch() {
+        UserWriteBehind userWriteBehind = userWriteBehind(10);
+        userWriteBehind.start();
+
+        userWriteBehind.enqueue(user("Valid"));
+        userWriteBehind.enqueue(user(null));
+        userWriteBehind.enqueue(user("Also valid"));
+        userWriteBehind.stop();
+
+        assertEquals(2, countUsers());
+        assertEquals(2, countEvents());
+        assertEquals(1, meterRegistry.get("users.write_behind.dropped").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should reject users once it is stopped")
+    public void shouldRejectUsersOnceItIsStopped() {
+        UserWriteBehind userWriteBehind = userWriteBehind(10);
+        userWriteBehind.start();
+        userWriteBehind.stop();
+
+        assertThrows(ServiceUnavailableException.class, () -> userWriteBehind.enqueue(user("Late")));
+    }
+
+    private UserWriteBehind userWriteBehind(int queueCapacity) {
+        WriteBehindProperties properties = new WriteBehindProperties(true, queueCapacity, 500,
+                Duration.ofMillis(50), Duration.ofMillis(50), spillFile(), false);
+        UserCache userCache = new UserCache(new UserCacheProperties(100, Duration.ofMinutes(5), false,
+                Duration.ofSeconds(30)));
+
+        return new UserWriteBehind(properties, jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), userCache, userOutbox(),
+                meterRegistry);
+    }
+
+    private UserOutbox userOutbox() {
+        return new UserOutbox(new ChangeFeedProperties(500, Duration.ofSeconds(1), Duration.ofMillis(50), 1),
+                jdbcTemplate, meterRegistry);
+    }
+
+    private Path spillFile() {
+        return directory.resolve("users-write-behind.log");
+    }
+
+    private long countSpillFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private int countUsers() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM users", Integer.class);
+    }
+
+    private int countEvents() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM user_events", Integer.class);
+    }
+
+    private static UserEntity user(String name) {
+        LocalDateTime now = LocalDateTime.now();
+        return UserEntity.builder()
+                .uuid(UuidV7Generator.next())
+                .name(name)
+                .age(30)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}